@@ -0,0 +1,116 @@
+package quadtree.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quadtree.ArrayQuadtreeBitmap;
+import quadtree.Colour;
+import quadtree.QuadtreeBitmap;
+
+/**
+ * Compares {@link ArrayQuadtreeBitmap} with {@link QuadtreeBitmap} on the sizes and shapes
+ * of {@link BitmapState}. The array engine keeps its nodes in flat arrays rather than as
+ * objects, so besides the time per operation the GC profiler's allocation rate and heap
+ * use are the results to compare.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class ArrayQuadtreeBitmapBenchmark {
+
+	/**
+	 * The shared bitmap and its overlay partner in the array engine, for the benchmarks
+	 * which do not modify them.
+	 */
+	@State(Scope.Benchmark)
+	public static class ArrayState {
+		ArrayQuadtreeBitmap bitmap;
+		ArrayQuadtreeBitmap other;
+
+		@Setup(Level.Trial)
+		public void setUp(BitmapState state) {
+			bitmap = ArrayQuadtreeBitmap.fromString(state.text);
+			other = ArrayQuadtreeBitmap.fromString(state.shape.text(state.size, 2));
+		}
+	}
+
+	/**
+	 * Copies of the shared bitmap in both engines, taken before every iteration, for the
+	 * benchmarks which modify them.
+	 */
+	@State(Scope.Thread)
+	public static class MutableState {
+		QuadtreeBitmap quadtree;
+		ArrayQuadtreeBitmap array;
+		Random random;
+
+		@Setup(Level.Iteration)
+		public void setUp(BitmapState state) {
+			quadtree = state.copy();
+			array = ArrayQuadtreeBitmap.fromString(state.text);
+			random = new Random(state.size);
+		}
+
+		Colour nextColour() {
+			return random.nextBoolean() ? Colour.BLACK : Colour.WHITE;
+		}
+	}
+
+	@Benchmark
+	public QuadtreeBitmap fromStringQuadtree(BitmapState state) {
+		return QuadtreeBitmap.fromString(state.text);
+	}
+
+	@Benchmark
+	public ArrayQuadtreeBitmap fromStringArray(BitmapState state) {
+		return ArrayQuadtreeBitmap.fromString(state.text);
+	}
+
+	@Benchmark
+	public long countPixelsQuadtree(BitmapState state) {
+		return state.bitmap.countPixels(Colour.BLACK);
+	}
+
+	@Benchmark
+	public long countPixelsArray(ArrayState state) {
+		return state.bitmap.countPixels(Colour.BLACK);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap setPixelQuadtree(MutableState state) {
+		int size = state.quadtree.getSize();
+		state.quadtree.setPixel(state.random.nextInt(size), state.random.nextInt(size), state.nextColour());
+		return state.quadtree;
+	}
+
+	@Benchmark
+	public ArrayQuadtreeBitmap setPixelArray(MutableState state) {
+		int size = state.array.getSize();
+		state.array.setPixel(state.random.nextInt(size), state.random.nextInt(size), state.nextColour());
+		return state.array;
+	}
+
+	@Benchmark
+	public QuadtreeBitmap computeOverlayQuadtree(BitmapState state) {
+		return QuadtreeBitmap.computeOverlay(state.bitmap, state.other);
+	}
+
+	@Benchmark
+	public ArrayQuadtreeBitmap computeOverlayArray(ArrayState state) {
+		return ArrayQuadtreeBitmap.computeOverlay(state.bitmap, state.other);
+	}
+}
@@ -0,0 +1,56 @@
+package quadtree.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import quadtree.QuadtreeBitmap;
+
+/**
+ * A bitmap of every benchmarked size and shape, with its text, a second bitmap of the 
+ * same shape to combine it with, an equal copy and a copy differing from it in a single 
+ * pixel. Shared by the benchmarks which do not modify it.
+ */
+@State(Scope.Benchmark)
+public class BitmapState {
+	@Param({"64", "256", "1024", "4096", "8192"})
+	public int size;
+
+	@Param
+	public Shape shape;
+
+	public String text;
+	public byte[] bytes;
+	public long[] bitset;
+	public byte[] pbm;
+	public QuadtreeBitmap bitmap;
+	public QuadtreeBitmap other;
+	public QuadtreeBitmap same;
+	public QuadtreeBitmap changed;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		text = shape.text(size, 1);
+		bytes = text.getBytes(Charset.defaultCharset());
+		bitmap = QuadtreeBitmap.fromString(text);
+		other = shape.build(size, 2);
+		same = copy();
+		changed = copy();
+		changed.invertRect(size/2, size/2, 1, 1);
+		bitset = bitmap.toBitset();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bitmap.writePbm(out);
+		pbm = out.toByteArray();
+	}
+
+	// a copy of the bitmap which a benchmark may modify
+	QuadtreeBitmap copy() {
+		return QuadtreeBitmap.computeOverlay(bitmap, new QuadtreeBitmap(size));
+	}
+}
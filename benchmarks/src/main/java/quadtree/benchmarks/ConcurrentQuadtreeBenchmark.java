@@ -0,0 +1,92 @@
+package quadtree.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quadtree.Colour;
+import quadtree.ConcurrentQuadtreeBitmap;
+import quadtree.QuadtreeBitmap;
+
+/**
+ * Measures setPixel throughput with several writers, each painting its own vertical band
+ * of one shared canvas: into a {@link ConcurrentQuadtreeBitmap} at several stripe depths,
+ * and into a single {@link QuadtreeBitmap} behind one global lock as the baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentQuadtreeBenchmark {
+
+	@Param({"4096"})
+	public int size;
+
+	@Param({"0", "1", "2", "3"})
+	public int stripeDepth;
+
+	private ConcurrentQuadtreeBitmap striped;
+	private QuadtreeBitmap locked;
+	private final AtomicInteger writers = new AtomicInteger();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		striped = new ConcurrentQuadtreeBitmap(size, Colour.WHITE, stripeDepth);
+		locked = new QuadtreeBitmap(size);
+	}
+
+	/**
+	 * The band of the canvas a benchmark thread writes into.
+	 */
+	@State(Scope.Thread)
+	public static class Writer {
+		int left;
+		int width;
+		Random random;
+
+		@Setup(Level.Trial)
+		public void setUp(ConcurrentQuadtreeBenchmark benchmark) {
+			int index = benchmark.writers.getAndIncrement() % 4;
+			width = benchmark.size / 4;
+			left = index * width;
+			random = new Random(index);
+		}
+	}
+
+	@Benchmark
+	public void striped(Writer writer) {
+		striped.setPixel(writer.left + writer.random.nextInt(writer.width),
+				writer.random.nextInt(size), nextColour(writer));
+	}
+
+	@Benchmark
+	public void globalLock(Writer writer) {
+		int x = writer.left + writer.random.nextInt(writer.width);
+		int y = writer.random.nextInt(size);
+		Colour colour = nextColour(writer);
+		synchronized (locked) {
+			locked.setPixel(x, y, colour);
+		}
+	}
+
+	private static Colour nextColour(Writer writer) {
+		return writer.random.nextBoolean() ? Colour.BLACK : Colour.WHITE;
+	}
+}
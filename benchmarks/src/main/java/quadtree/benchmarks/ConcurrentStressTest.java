@@ -0,0 +1,128 @@
+package quadtree.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import quadtree.Colour;
+import quadtree.ConcurrentQuadtreeBitmap;
+import quadtree.QuadtreeBitmap;
+
+/**
+ * Stress test for {@link ConcurrentQuadtreeBitmap}. Writers paint random pixels and
+ * rectangles into disjoint bands of one canvas, some of them straddling stripes, while
+ * readers snapshot it. Each snapshot's root count must equal the sum of its per-band counts,
+ * and the snapshot must equal a rebuild from its own bitset, so a torn snapshot is caught.
+ * Each writer keeps its own model of its band, and at the end the canvas must match the
+ * models exactly. Exits with status 1 on any mismatch.
+ *
+ * Run with {@code java -cp benchmarks/target/benchmarks.jar quadtree.benchmarks.ConcurrentStressTest
+ * [size] [writers] [operations per writer]}.
+ */
+public class ConcurrentStressTest {
+
+	public static void main(String[] args) throws Exception {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+		int writers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		int operations = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+		boolean ok = true;
+		for (int depth = 0; (size >> depth) > 0 && depth <= 4; depth++) {
+			ok &= run(size, writers, operations, depth);
+		}
+		System.out.println(ok ? "PASSED" : "FAILED");
+		System.exit(ok ? 0 : 1);
+	}
+
+	private static boolean run(int size, int writers, int operations, int depth) throws Exception {
+		ConcurrentQuadtreeBitmap bitmap = new ConcurrentQuadtreeBitmap(size, Colour.WHITE, depth);
+		// bands are deliberately not aligned to stripes
+		int bandHeight = size / writers;
+		boolean[][] expected = new boolean[size][size];
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService pool = Executors.newFixedThreadPool(writers + 2);
+		List<Future<?>> writes = new ArrayList<>();
+		for (int w = 0; w < writers; w++) {
+			int top = w * bandHeight;
+			int seed = w;
+			writes.add(pool.submit(() -> paint(bitmap, expected, top, bandHeight, operations, new Random(seed))));
+		}
+		List<Future<?>> reads = new ArrayList<>();
+		for (int r = 0; r < 2; r++) {
+			reads.add(pool.submit(() -> {
+				while (writing.get()) {
+					// one snapshot, so its cached counts and hashes must agree with its pixels
+					QuadtreeBitmap snapshot = bitmap.toQuadtreeBitmap();
+					long black = snapshot.countPixels(Colour.BLACK);
+					long bands = 0;
+					for (int top = 0; top < size; top += bandHeight) {
+						bands += snapshot.countPixels(Colour.BLACK, 0, top, size, Math.min(bandHeight, size - top));
+					}
+					if (bands != black) {
+						throw new IllegalStateException("Bands count " + bands + " black pixels, root " + black);
+					}
+					QuadtreeBitmap rebuilt = QuadtreeBitmap.fromBitset(snapshot.toBitset(), size);
+					if (rebuilt.countPixels(Colour.BLACK) != black || !rebuilt.equals(snapshot)) {
+						throw new IllegalStateException("Snapshot differs from a rebuild of its own pixels");
+					}
+				}
+				return null;
+			}));
+		}
+		try {
+			for (Future<?> write : writes) {
+				write.get();
+			}
+		} finally {
+			writing.set(false);
+			pool.shutdown();
+		}
+		for (Future<?> read : reads) {
+			read.get();
+		}
+
+		QuadtreeBitmap result = bitmap.toQuadtreeBitmap();
+		long black = 0;
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if ((result.getPixel(x, y) == Colour.BLACK) != expected[y][x]) {
+					System.out.println("depth " + depth + ": pixel (" + x + ", " + y + ") differs");
+					return false;
+				}
+				black += expected[y][x] ? 1 : 0;
+			}
+		}
+		boolean ok = black == bitmap.countPixels(Colour.BLACK);
+		System.out.println("depth " + depth + ": " + (ok ? "ok" : "count differs"));
+		return ok;
+	}
+
+	private static void paint(ConcurrentQuadtreeBitmap bitmap, boolean[][] expected, int top,
+			int height, int operations, Random random) {
+		int size = bitmap.getSize();
+		for (int i = 0; i < operations; i++) {
+			boolean black = random.nextBoolean();
+			Colour colour = black ? Colour.BLACK : Colour.WHITE;
+			if (random.nextInt(100) == 0) {
+				int x = random.nextInt(size);
+				int y = top + random.nextInt(height);
+				int w = random.nextInt(size - x) + 1;
+				int h = random.nextInt(top + height - y) + 1;
+				bitmap.fillRect(x, y, w, h, colour);
+				for (int row = y; row < y + h; row++) {
+					for (int column = x; column < x + w; column++) {
+						expected[row][column] = black;
+					}
+				}
+			} else {
+				int x = random.nextInt(size);
+				int y = top + random.nextInt(height);
+				bitmap.setPixel(x, y, colour);
+				expected[y][x] = black;
+			}
+		}
+	}
+}
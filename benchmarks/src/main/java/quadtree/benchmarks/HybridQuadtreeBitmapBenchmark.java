@@ -0,0 +1,107 @@
+package quadtree.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quadtree.Colour;
+import quadtree.HybridQuadtreeBitmap;
+import quadtree.QuadtreeBitmap;
+
+/**
+ * Compares {@link HybridQuadtreeBitmap} with {@link QuadtreeBitmap} on the same pixels. The
+ * hybrid's tiles should win most clearly on the noisy and checkerboard shapes, where the 
+ * pure quadtree splits down to single pixels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+@State(Scope.Thread)
+public class HybridQuadtreeBitmapBenchmark {
+
+	@Param({"256", "1024", "4096"})
+	public int size;
+
+	@Param({"NOISE", "CHECKERBOARD", "LARGE_BLOBS"})
+	public Shape shape;
+
+	private String text;
+	private QuadtreeBitmap quadtree;
+	private QuadtreeBitmap otherQuadtree;
+	private HybridQuadtreeBitmap hybrid;
+	private HybridQuadtreeBitmap otherHybrid;
+	private Random random;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		text = shape.text(size, 1);
+		String otherText = shape.text(size, 2);
+		quadtree = QuadtreeBitmap.fromString(text);
+		otherQuadtree = QuadtreeBitmap.fromString(otherText);
+		hybrid = HybridQuadtreeBitmap.fromString(text);
+		otherHybrid = HybridQuadtreeBitmap.fromString(otherText);
+		random = new Random(size);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap fromStringQuadtree() {
+		return QuadtreeBitmap.fromString(text);
+	}
+
+	@Benchmark
+	public HybridQuadtreeBitmap fromStringHybrid() {
+		return HybridQuadtreeBitmap.fromString(text);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap invertColoursQuadtree() {
+		quadtree.invertColours();
+		return quadtree;
+	}
+
+	@Benchmark
+	public HybridQuadtreeBitmap invertColoursHybrid() {
+		hybrid.invertColours();
+		return hybrid;
+	}
+
+	@Benchmark
+	public QuadtreeBitmap computeOverlayQuadtree() {
+		return QuadtreeBitmap.computeOverlay(quadtree, otherQuadtree);
+	}
+
+	@Benchmark
+	public HybridQuadtreeBitmap computeOverlayHybrid() {
+		return HybridQuadtreeBitmap.computeOverlay(hybrid, otherHybrid);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap setPixelQuadtree() {
+		quadtree.setPixel(random.nextInt(size), random.nextInt(size), nextColour());
+		return quadtree;
+	}
+
+	@Benchmark
+	public HybridQuadtreeBitmap setPixelHybrid() {
+		hybrid.setPixel(random.nextInt(size), random.nextInt(size), nextColour());
+		return hybrid;
+	}
+
+	private Colour nextColour() {
+		return random.nextBoolean() ? Colour.BLACK : Colour.WHITE;
+	}
+}
@@ -0,0 +1,74 @@
+package quadtree.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quadtree.QuadtreeBitmap;
+import quadtree.QuadtreeParallelism;
+
+/**
+ * Compares overlaying many layers in one k-way pass, sequentially and in parallel, with
+ * chaining {@link QuadtreeBitmap#computeOverlay(QuadtreeBitmap, QuadtreeBitmap)} pairwise.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class OverlayAllBenchmark {
+
+	@Param({"256", "1024"})
+	public int size;
+
+	@Param({"50", "500"})
+	public int layers;
+
+	@Param({"SPARSE_DOTS", "LARGE_BLOBS"})
+	public Shape shape;
+
+	private List<QuadtreeBitmap> bitmaps;
+	private QuadtreeParallelism parallelism;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		bitmaps = new ArrayList<>();
+		for (int i = 0; i < layers; i++) {
+			bitmaps.add(shape.build(size, i + 1));
+		}
+		parallelism = QuadtreeParallelism.common();
+	}
+
+	@Benchmark
+	public QuadtreeBitmap pairwise() {
+		QuadtreeBitmap overlay = bitmaps.get(0);
+		for (int i = 1; i < bitmaps.size(); i++) {
+			overlay = QuadtreeBitmap.computeOverlay(overlay, bitmaps.get(i));
+		}
+		return overlay;
+	}
+
+	@Benchmark
+	public QuadtreeBitmap kWay() {
+		return QuadtreeBitmap.computeOverlay(bitmaps);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap kWayParallel() {
+		return QuadtreeBitmap.computeOverlay(bitmaps, parallelism);
+	}
+}
@@ -0,0 +1,174 @@
+package quadtree.benchmarks;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quadtree.Colour;
+import quadtree.DownsamplePolicy;
+import quadtree.QuadtreeBitmap;
+
+/**
+ * Measures every public {@link QuadtreeBitmap} operation across the sizes and shapes of 
+ * {@link BitmapState}. The largest noisy bitmaps need several gigabytes of heap, hence the 
+ * forked JVM's maximum heap size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class QuadtreeBitmapBenchmark {
+
+	/**
+	 * A copy of the shared bitmap, taken before every iteration, for the benchmarks which 
+	 * modify it.
+	 */
+	@State(Scope.Thread)
+	public static class MutableState {
+		QuadtreeBitmap bitmap;
+		Random random;
+
+		@Setup(Level.Iteration)
+		public void setUp(BitmapState state) {
+			bitmap = state.copy();
+			random = new Random(state.size);
+		}
+	}
+
+	/**
+	 * A fresh copy of the shared bitmap before every invocation, for operations which 
+	 * would be no-ops when repeated.
+	 */
+	@State(Scope.Thread)
+	public static class FreshState {
+		QuadtreeBitmap bitmap;
+
+		@Setup(Level.Invocation)
+		public void setUp(BitmapState state) {
+			bitmap = state.copy();
+		}
+	}
+
+	@Benchmark
+	public QuadtreeBitmap fromString(BitmapState state) {
+		return QuadtreeBitmap.fromString(state.text);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap readBmpFromStream(BitmapState state) {
+		return QuadtreeBitmap.readBmpFromStream(new ByteArrayInputStream(state.bytes));
+	}
+
+	@Benchmark
+	public QuadtreeBitmap fromBitset(BitmapState state) {
+		return QuadtreeBitmap.fromBitset(state.bitset, state.size);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap readPbm(BitmapState state) throws IOException {
+		return QuadtreeBitmap.readPbm(new ByteArrayInputStream(state.pbm));
+	}
+
+	@Benchmark
+	public long countPixels(BitmapState state) {
+		return state.bitmap.countPixels(Colour.BLACK);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap setPixel(MutableState state) {
+		int size = state.bitmap.getSize();
+		Colour colour = state.random.nextBoolean() ? Colour.BLACK : Colour.WHITE;
+		state.bitmap.setPixel(state.random.nextInt(size), state.random.nextInt(size), colour);
+		return state.bitmap;
+	}
+
+	@Benchmark
+	public QuadtreeBitmap invertColours(MutableState state) {
+		state.bitmap.invertColours();
+		return state.bitmap;
+	}
+
+	@Benchmark
+	public QuadtreeBitmap blackenNorthWestQuadrant(FreshState state) {
+		state.bitmap.blackenNorthWestQuadrant();
+		return state.bitmap;
+	}
+
+	@Benchmark
+	public QuadtreeBitmap computeOverlay(BitmapState state) {
+		return QuadtreeBitmap.computeOverlay(state.bitmap, state.other);
+	}
+
+	@Benchmark
+	public QuadtreeBitmap rotate90(BitmapState state) {
+		return state.bitmap.rotate90();
+	}
+
+	@Benchmark
+	public QuadtreeBitmap downsample(BitmapState state) {
+		return state.bitmap.downsample(2, DownsamplePolicy.MAJORITY);
+	}
+
+	@Benchmark
+	public Rectangle blackBoundingBox(BitmapState state) {
+		return state.bitmap.blackBoundingBox();
+	}
+
+	@Benchmark
+	public OptionalLong nearestBlack(MutableState state) {
+		int size = state.bitmap.getSize();
+		return state.bitmap.nearestBlack(state.random.nextInt(size), state.random.nextInt(size));
+	}
+
+	@Benchmark
+	public long blackPixels(BitmapState state) {
+		return state.bitmap.blackPixels().sum();
+	}
+
+	@Benchmark
+	public long blackRuns(BitmapState state) {
+		return state.bitmap.blackRuns().count();
+	}
+
+	@Benchmark
+	public boolean equalsBenchmark(BitmapState state) {
+		return state.bitmap.equals(state.changed);
+	}
+
+	@Benchmark
+	public boolean equalsSame(BitmapState state) {
+		return state.bitmap.equals(state.same);
+	}
+
+	@Benchmark
+	public List<Rectangle> diff(BitmapState state) {
+		return QuadtreeBitmap.diff(state.bitmap, state.changed);
+	}
+
+	@Benchmark
+	public String toStringBenchmark(BitmapState state) {
+		return state.bitmap.toString();
+	}
+
+	@Benchmark
+	public String toTreeString(BitmapState state) {
+		return state.bitmap.toTreeString();
+	}
+}
@@ -0,0 +1,70 @@
+package quadtree.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quadtree.Colour;
+import quadtree.QuadtreeBitmap;
+
+/**
+ * Regression benchmark comparing {@link QuadtreeBitmap#setPixel}, which only splits the
+ * nodes on the path to the pixel, with {@link QuadtreeBitmap#setPixelBySlicing}, which
+ * slices the whole bitmap down to single pixels on every write and is deprecated, kept
+ * only as this benchmark's baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+@State(Scope.Thread)
+public class SetPixelBenchmark {
+
+	// pixels set black before measuring, so the tree is not trivially uniform
+	private static final int SEED_PIXELS = 2000;
+
+	@Param({"256", "1024", "4096"})
+	public int size;
+
+	private QuadtreeBitmap bitmap;
+	private Random random;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		random = new Random(size);
+		bitmap = new QuadtreeBitmap(size);
+		for (int i = 0; i < SEED_PIXELS; i++) {
+			bitmap.setPixel(random.nextInt(size), random.nextInt(size), Colour.BLACK);
+		}
+	}
+
+	@Benchmark
+	public QuadtreeBitmap pathDescent() {
+		bitmap.setPixel(random.nextInt(size), random.nextInt(size), nextColour());
+		return bitmap;
+	}
+
+	@Benchmark
+	@SuppressWarnings("deprecation")
+	public QuadtreeBitmap slicing() {
+		bitmap.setPixelBySlicing(random.nextInt(size), random.nextInt(size), nextColour());
+		return bitmap;
+	}
+
+	private Colour nextColour() {
+		return random.nextBoolean() ? Colour.BLACK : Colour.WHITE;
+	}
+}
@@ -0,0 +1,112 @@
+package quadtree.benchmarks;
+
+import java.util.Random;
+
+import quadtree.Colour;
+import quadtree.QuadtreeBitmap;
+
+/**
+ * The input shapes benchmarks run against, from the best case for a quadtree to the worst. 
+ * Every shape is generated row by row and deterministically from a seed, so that runs are 
+ * comparable and large bitmaps can be built without holding their text in memory.
+ */
+public enum Shape {
+	/** Every pixel white: a single leaf. */
+	ALL_WHITE {
+		@Override
+		boolean black(int x, int y, int size, Random random) {
+			return false;
+		}
+	},
+	/** Every pixel black with probability one half: close to one leaf per pixel. */
+	NOISE {
+		@Override
+		boolean black(int x, int y, int size, Random random) {
+			return random.nextBoolean();
+		}
+	},
+	/** About one pixel in a thousand black: long thin paths down to isolated dots. */
+	SPARSE_DOTS {
+		@Override
+		boolean black(int x, int y, int size, Random random) {
+			return random.nextInt(1000) == 0;
+		}
+	},
+	/** A handful of large filled discs: big uniform regions with detailed edges. */
+	LARGE_BLOBS {
+		@Override
+		boolean black(int x, int y, int size, Random random) {
+			for (int[] blob : BLOBS) {
+				long dx = x - (long) blob[0] * size / 100;
+				long dy = y - (long) blob[1] * size / 100;
+				long r = (long) blob[2] * size / 100;
+				if (dx * dx + dy * dy <= r * r) {
+					return true;
+				}
+			}
+			return false;
+		}
+	},
+	/** Alternating single pixels: one leaf per pixel, no matter the seed. */
+	CHECKERBOARD {
+		@Override
+		boolean black(int x, int y, int size, Random random) {
+			return (x + y) % 2 == 0;
+		}
+	};
+
+	// centre x, centre y and radius of each blob, in percent of the bitmap size
+	private static final int[][] BLOBS = {{25, 30, 20}, {70, 25, 15}, {55, 70, 25}, {15, 80, 10}};
+
+	abstract boolean black(int x, int y, int size, Random random);
+
+	/**
+	 * Returns the given row of this shape, as text accepted by {@link QuadtreeBitmap#fromString}.
+	 *
+	 * @param y the index of the row
+	 * @param size the height and width of the bitmap
+	 * @param seed the seed of the random choices made by the shape
+	 * @return the textures of the pixels in the row
+	 */
+	public String row(int y, int size, long seed) {
+		Random random = new Random(seed * 31 + y);
+		char[] row = new char[size];
+		for (int x = 0; x < size; x++) {
+			row[x] = black(x, y, size, random) ? Colour.BLACK.getTexture() : Colour.WHITE.getTexture();
+		}
+		return new String(row);
+	}
+
+	/**
+	 * Returns this shape at the given size as text accepted by {@link QuadtreeBitmap#fromString}.
+	 *
+	 * @param size the height and width of the bitmap
+	 * @param seed the seed of the random choices made by the shape
+	 * @return the text of the whole bitmap
+	 */
+	public String text(int size, long seed) {
+		StringBuilder sb = new StringBuilder((size + 2) * size);
+		for (int y = 0; y < size; y++) {
+			sb.append(row(y, size, seed));
+			if (y + 1 < size) {
+				sb.append(System.lineSeparator());
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Builds this shape at the given size directly from its rows.
+	 *
+	 * @param size the height and width of the bitmap
+	 * @param seed the seed of the random choices made by the shape
+	 * @return the bitmap of the shape
+	 */
+	public QuadtreeBitmap build(int size, long seed) {
+		QuadtreeBitmap.Builder builder = new QuadtreeBitmap.Builder();
+		for (int y = 0; y < size; y++) {
+			builder.addRow(row(y, size, seed));
+		}
+		return builder.build();
+	}
+}
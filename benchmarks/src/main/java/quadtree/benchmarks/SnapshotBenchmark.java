@@ -0,0 +1,65 @@
+package quadtree.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quadtree.Colour;
+import quadtree.ImmutableQuadtreeBitmap;
+import quadtree.SnapshotQuadtreeBitmap;
+
+/**
+ * Measures read throughput on a {@link SnapshotQuadtreeBitmap} while one writer keeps
+ * setting pixels. Vary the number of readers with {@code -tg 1,N} to see how reads scale.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SnapshotBenchmark {
+
+	@Param({"1024", "8192"})
+	public int size;
+
+	private SnapshotQuadtreeBitmap bitmap;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		bitmap = new SnapshotQuadtreeBitmap(
+				ImmutableQuadtreeBitmap.fromString(Shape.LARGE_BLOBS.text(size, 1)));
+	}
+
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(1)
+	public void write() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		bitmap.setPixel(random.nextInt(size), random.nextInt(size),
+				random.nextBoolean() ? Colour.BLACK : Colour.WHITE);
+	}
+
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(4)
+	public Colour read() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		ImmutableQuadtreeBitmap snapshot = bitmap.snapshot();
+		return snapshot.getPixel(random.nextInt(size), random.nextInt(size));
+	}
+}
@@ -0,0 +1,354 @@
+package quadtree;
+
+import java.util.Arrays;
+
+/**
+ * A quadtree bitmap with the same operations as {@link QuadtreeBitmap}, but which stores its
+ * nodes in flat primitive arrays instead of as one object per node. A node is an index into
+ * those arrays; the four children of an internal node occupy four consecutive slots, so only
+ * the index of the first child is stored. The location and size of a node are not stored at
+ * all, but derived while traversing from the root.
+ *
+ * Each node costs 13 bytes of array storage (a kind byte, a child index and a black pixel
+ * count), against a header, six fields and four references for a QuadtreeBitmap node. Blocks
+ * of children released by merging are kept on a free list and reused.
+ */
+public class ArrayQuadtreeBitmap {
+	// node kinds
+	private static final byte WHITE = 0;
+	private static final byte BLACK = 1;
+	private static final byte INTERNAL = 2;
+
+	private static final int ROOT = 0;
+	private static final int NONE = -1;
+	private static final int INITIAL_CAPACITY = 64;
+
+	// height and width
+	private final int size;
+	// per node: whether it is a white leaf, black leaf or internal node
+	private byte[] kind;
+	// per internal node: the slot of its north-west child, followed by north-east,
+	// south-west and south-east; per freed block: the next freed block
+	private int[] firstChild;
+	// per node: the number of black pixels in its region
+	private long[] blackCount;
+	// first slot never handed out
+	private int top;
+	// head of the list of freed blocks of four slots
+	private int freeBlock;
+
+	/**
+	 * Constructs a new bitmap with height and width equal to the specified size, and every
+	 * pixel initialized to the given colour. The specified size must be a power of 2, and
+	 * must be greater than zero.
+	 *
+	 * @param size the height and width of this bitmap
+	 * @param colour the colour with which to initialize every pixel in this bitmap
+	 */
+	public ArrayQuadtreeBitmap(int size, Colour colour) {
+		if (!QuadtreeBitmap.powerOfTwo(size)) {
+			throw new IllegalArgumentException("Size not power of 2.");
+		}
+		this.size = size;
+		this.kind = new byte[INITIAL_CAPACITY];
+		this.firstChild = new int[INITIAL_CAPACITY];
+		this.blackCount = new long[INITIAL_CAPACITY];
+		this.top = ROOT + 1;
+		this.freeBlock = NONE;
+		setLeaf(ROOT, size, colour.equals(Colour.BLACK) ? BLACK : WHITE);
+	}
+
+	/**
+	 * Constructs a new bitmap with height and width equal to the specified size, and every
+	 * pixel initialized to white. The specified size must be a power of 2, and must be
+	 * greater than zero.
+	 *
+	 * @param size the height and width of this bitmap
+	 */
+	public ArrayQuadtreeBitmap(int size) {
+		this(size, Colour.WHITE);
+	}
+
+	/**
+	 * Returns the height and width of this bitmap.
+	 *
+	 * @return the size of this bitmap
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Constructs a bitmap from the string representation accepted by
+	 * {@link QuadtreeBitmap#fromString}. Fails with an {@code IllegalArgumentException} if
+	 * the input string does not properly encode a valid bitmap.
+	 *
+	 * @param bmpString input string to be converted into a bitmap
+	 * @return a bitmap representation of the input string
+	 */
+	public static ArrayQuadtreeBitmap fromString(String bmpString) {
+		QuadtreeBitmap.validateBmpString(bmpString);
+		String[] rows = bmpString.split("\\R");
+		ArrayQuadtreeBitmap bmp = new ArrayQuadtreeBitmap(rows.length);
+		bmp.build(ROOT, 0, 0, rows.length, rows);
+		return bmp;
+	}
+
+	// builds bottom-up, merging each block of children as soon as it turns out uniform
+	private void build(int node, int x, int y, int size, String[] rows) {
+		if (size == 1) {
+			setLeaf(node, 1, rows[y].charAt(x) == Colour.BLACK.getTexture() ? BLACK : WHITE);
+			return;
+		}
+		split(node, size);
+		int half = size/2;
+		int child = firstChild[node];
+		build(child, x, y, half, rows);
+		build(child + 1, x + half, y, half, rows);
+		build(child + 2, x, y + half, half, rows);
+		build(child + 3, x + half, y + half, half, rows);
+		collapse(node, size);
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour in this bitmap, in constant time.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 */
+	public long countPixels(Colour colour) {
+		if (colour.equals(Colour.BLACK)) {
+			return blackCount[ROOT];
+		}
+		return (long) size * size - blackCount[ROOT];
+	}
+
+	/**
+	 * Sets the colour of a single pixel at the specified location to the given colour.
+	 * Locations outside the bitmap are ignored.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @param colour the colour to set the pixel at the given location to
+	 */
+	public void setPixel(int x, int y, Colour colour) {
+		if (0 <= x && 0 <= y && x < size && y < size) {
+			setPixel(ROOT, 0, 0, size, x, y, colour.equals(Colour.BLACK) ? BLACK : WHITE);
+		}
+	}
+
+	// descends towards the pixel, splitting leaves on the way, and collapses on the way back up
+	private void setPixel(int node, int nodeX, int nodeY, int size, int x, int y, byte colour) {
+		if (kind[node] != INTERNAL) {
+			if (kind[node] == colour) {
+				return;
+			}
+			if (size == 1) {
+				setLeaf(node, 1, colour);
+				return;
+			}
+			split(node, size);
+		}
+		int half = size/2;
+		int quad = (x < nodeX + half ? 0 : 1) + (y < nodeY + half ? 0 : 2);
+		setPixel(firstChild[node] + quad,
+				quad % 2 == 0 ? nodeX : nodeX + half,
+				quad < 2 ? nodeY : nodeY + half,
+				half, x, y, colour);
+		collapse(node, size);
+	}
+
+	/**
+	 * Inverts the colours in this bitmap, i.e. turns every black pixel white and every white
+	 * pixel black.
+	 */
+	public void invertColours() {
+		invertColours(ROOT, size);
+	}
+
+	private void invertColours(int node, int size) {
+		if (kind[node] == INTERNAL) {
+			int child = firstChild[node];
+			for (int i = 0; i < 4; i++) {
+				invertColours(child + i, size/2);
+			}
+		} else {
+			kind[node] = kind[node] == BLACK ? WHITE : BLACK;
+		}
+		blackCount[node] = (long) size * size - blackCount[node];
+	}
+
+	/**
+	 * Constructs and returns the overlay of the two given bitmaps, as described by
+	 * {@link QuadtreeBitmap#computeOverlay}. Only supports bitmaps that are the same size;
+	 * neither input is modified.
+	 *
+	 * @param bmp1 the first of two bitmaps to compute the overlay of
+	 * @param bmp2 the second of two bitmaps to compute the overlay of
+	 * @return the newly constructed overlay, or null if the sizes differ
+	 */
+	public static ArrayQuadtreeBitmap computeOverlay(ArrayQuadtreeBitmap bmp1, ArrayQuadtreeBitmap bmp2) {
+		if (bmp1.size != bmp2.size) {
+			return null;
+		}
+		ArrayQuadtreeBitmap result = new ArrayQuadtreeBitmap(bmp1.size);
+		result.overlay(ROOT, bmp1, ROOT, bmp2, ROOT, bmp1.size);
+		return result;
+	}
+
+	// writes the overlay of the two source nodes into node, descending only where both split
+	private void overlay(int node, ArrayQuadtreeBitmap bmp1, int node1,
+			ArrayQuadtreeBitmap bmp2, int node2, int size) {
+		byte kind1 = bmp1.kind[node1];
+		byte kind2 = bmp2.kind[node2];
+		if (kind1 == BLACK || kind2 == BLACK) {
+			setLeaf(node, size, BLACK);
+		} else if (kind1 == WHITE) {
+			copyFrom(node, bmp2, node2, size);
+		} else if (kind2 == WHITE) {
+			copyFrom(node, bmp1, node1, size);
+		} else {
+			split(node, size);
+			for (int i = 0; i < 4; i++) {
+				overlay(firstChild[node] + i, bmp1, bmp1.firstChild[node1] + i,
+						bmp2, bmp2.firstChild[node2] + i, size/2);
+			}
+			collapse(node, size);
+		}
+	}
+
+	// copies the subtree at source node of another bitmap into the leaf node of this one
+	private void copyFrom(int node, ArrayQuadtreeBitmap source, int sourceNode, int size) {
+		if (source.kind[sourceNode] != INTERNAL) {
+			setLeaf(node, size, source.kind[sourceNode]);
+			return;
+		}
+		split(node, size);
+		for (int i = 0; i < 4; i++) {
+			copyFrom(firstChild[node] + i, source, source.firstChild[sourceNode] + i, size/2);
+		}
+		blackCount[node] = source.blackCount[sourceNode];
+	}
+
+	/**
+	 * Returns a string representation of this bitmap, identical to the one
+	 * {@link QuadtreeBitmap#toString} gives for the same pixels.
+	 *
+	 * @return a string representation of this bitmap
+	 */
+	@Override
+	public String toString() {
+		char[][] canvas = new char[size][size];
+		printToCanvas(canvas, ROOT, 0, 0, size);
+		return QuadtreeBitmap.canvasToString(canvas);
+	}
+
+	private void printToCanvas(char[][] canvas, int node, int x, int y, int size) {
+		if (kind[node] == INTERNAL) {
+			int half = size/2;
+			int child = firstChild[node];
+			printToCanvas(canvas, child, x, y, half);
+			printToCanvas(canvas, child + 1, x + half, y, half);
+			printToCanvas(canvas, child + 2, x, y + half, half);
+			printToCanvas(canvas, child + 3, x + half, y + half, half);
+		} else {
+			char texture = kind[node] == BLACK ? Colour.BLACK.getTexture() : Colour.WHITE.getTexture();
+			for (int i = y; i < y + size; i++) {
+				Arrays.fill(canvas[i], x, x + size, texture);
+			}
+		}
+	}
+
+	/**
+	 * Returns a string representation of the tree structure of this bitmap, identical to
+	 * the one {@link QuadtreeBitmap#toTreeString} gives for the same pixels.
+	 *
+	 * @return a string representation of this quadtree
+	 */
+	public String toTreeString() {
+		char[][] canvas = new char[2*size + 1][2*size + 1];
+		printTreeToCanvas(canvas, ROOT, 0, 0, size);
+		return QuadtreeBitmap.canvasToString(canvas);
+	}
+
+	private void printTreeToCanvas(char[][] canvas, int node, int x, int y, int size) {
+		if (kind[node] == INTERNAL) {
+			int half = size/2;
+			int child = firstChild[node];
+			printTreeToCanvas(canvas, child, x, y, half);
+			printTreeToCanvas(canvas, child + 1, x + half, y, half);
+			printTreeToCanvas(canvas, child + 2, x, y + half, half);
+			printTreeToCanvas(canvas, child + 3, x + half, y + half, half);
+		} else {
+			QuadtreeBitmap.printLeafBoxToCanvas(canvas, 2*x, 2*y, size,
+					kind[node] == BLACK ? Colour.BLACK : Colour.WHITE);
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////
+	// Arena management
+	/////////////////////////////////////////////////////////////////////////
+
+	private void setLeaf(int node, int size, byte colour) {
+		if (kind[node] == INTERNAL) {
+			release(firstChild[node]);
+		}
+		kind[node] = colour;
+		blackCount[node] = colour == BLACK ? (long) size * size : 0;
+	}
+
+	// turns a leaf into an internal node with four children of the leaf's colour
+	private void split(int node, int size) {
+		byte colour = kind[node];
+		// allocate before indexing, as allocation may replace the arrays
+		int child = allocateBlock();
+		for (int i = 0; i < 4; i++) {
+			kind[child + i] = colour;
+			blackCount[child + i] = colour == BLACK ? (long) size/2 * (size/2) : 0;
+		}
+		kind[node] = INTERNAL;
+		firstChild[node] = child;
+	}
+
+	// recounts an internal node, and turns it back into a leaf if its region is uniform
+	private void collapse(int node, int size) {
+		int child = firstChild[node];
+		long count = blackCount[child] + blackCount[child + 1]
+				+ blackCount[child + 2] + blackCount[child + 3];
+		blackCount[node] = count;
+		if (count == 0) {
+			setLeaf(node, size, WHITE);
+		} else if (count == (long) size * size) {
+			setLeaf(node, size, BLACK);
+		}
+	}
+
+	private int allocateBlock() {
+		if (freeBlock != NONE) {
+			int block = freeBlock;
+			freeBlock = firstChild[block];
+			return block;
+		}
+		if (top + 4 > kind.length) {
+			int capacity = kind.length * 2;
+			kind = Arrays.copyOf(kind, capacity);
+			firstChild = Arrays.copyOf(firstChild, capacity);
+			blackCount = Arrays.copyOf(blackCount, capacity);
+		}
+		int block = top;
+		top += 4;
+		return block;
+	}
+
+	// returns a block of children, and everything beneath it, to the free list
+	private void release(int block) {
+		for (int i = 0; i < 4; i++) {
+			if (kind[block + i] == INTERNAL) {
+				release(firstChild[block + i]);
+			}
+			kind[block + i] = WHITE;
+		}
+		firstChild[block] = freeBlock;
+		freeBlock = block;
+	}
+}
@@ -0,0 +1,239 @@
+package quadtree;
+
+/**
+ * A read-only quadtree view of a packed bitset in the layout of
+ * {@link QuadtreeBitmap#fromBitset}, sharing the array rather than copying it. Wrapping a
+ * bitset builds nothing: a node's black count is worked out from the bits under it the
+ * first time a query needs it, and its quadrants are only created the first time a query
+ * descends into it. Both are cached, so a query costs about the area it touches, and the
+ * cost of a full build, one read of the bitset, is only paid by {@link #toQuadtreeBitmap}.
+ *
+ * The bitset must not be modified while it is wrapped. Queries cache what they resolve, so
+ * a view is not safe for concurrent use without external synchronization.
+ */
+public final class BitsetQuadtreeBitmap {
+	private final long[] bits;
+	private final int size;
+	private final Node root;
+
+	// a region of the bitmap, resolved as queries reach it
+	private static final class Node {
+		final int x;
+		final int y;
+		final int size;
+		// number of black pixels, or -1 until a query needs it
+		long blackCount = -1;
+		// north-west, north-east, south-west and south-east, once a query descends here
+		Node[] quadrants;
+
+		Node(int x, int y, int size) {
+			this.x = x;
+			this.y = y;
+			this.size = size;
+		}
+
+		long area() {
+			return (long) size * size;
+		}
+	}
+
+	private BitsetQuadtreeBitmap(long[] bits, int size) {
+		this.bits = bits;
+		this.size = size;
+		this.root = new Node(0, 0, size);
+	}
+
+	/**
+	 * Returns a view of the given bitset as a bitmap of the given size, without copying it.
+	 *
+	 * @param bits the pixels, one bit each, in row-major order
+	 * @param size the height and width of the bitmap, a power of 2
+	 * @return a lazy quadtree view of the bitset
+	 */
+	public static BitsetQuadtreeBitmap wrap(long[] bits, int size) {
+		if (!QuadtreeBitmap.powerOfTwo(size)) {
+			throw new IllegalArgumentException("Size not power of 2.");
+		} else if (bits.length != QuadtreeBitmap.bitsetWords(size)) {
+			throw new IllegalArgumentException("Bitset length does not match size.");
+		}
+		return new BitsetQuadtreeBitmap(bits, size);
+	}
+
+	/**
+	 * Returns the height and width of the bitmap.
+	 *
+	 * @return the size of the bitmap
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the colour of the pixel at the specified location, read straight from the
+	 * bitset.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @return the colour of the pixel at the given location
+	 */
+	public Colour getPixel(int x, int y) {
+		if (x < 0 || y < 0 || x >= size || y >= size) {
+			throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") outside bitmap.");
+		}
+		long index = (long) y * size + x;
+		return (bits[(int) (index >>> 6)] >>> index & 1) != 0 ? Colour.BLACK : Colour.WHITE;
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour in the bitmap. The first call counts
+	 * the bits of the whole bitset; later calls return the cached count.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 */
+	public long countPixels(Colour colour) {
+		long black = blackCount(root);
+		if (colour.equals(Colour.BLACK)) {
+			return black;
+		}
+		return root.area() - black;
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour within the given rectangle, as
+	 * {@link QuadtreeBitmap#countPixels(Colour, int, int, int, int)} does. Nodes inside the
+	 * rectangle are counted, or taken from the cache, as a whole; nodes cut by its edges are
+	 * only split while they are wider than 64 pixels, below which the bits inside the
+	 * rectangle are counted directly.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @param x the distance right of the origin of the rectangle's left edge
+	 * @param y the distance below the origin of the rectangle's top edge
+	 * @param w the width of the rectangle
+	 * @param h the height of the rectangle
+	 * @return the number of pixels of the given colour within the rectangle
+	 */
+	public long countPixels(Colour colour, int x, int y, int w, int h) {
+		if (w < 0 || h < 0) {
+			throw new IllegalArgumentException("Negative rectangle size.");
+		}
+		long left = Math.max(x, 0);
+		long top = Math.max(y, 0);
+		long right = Math.min((long) x + w, size);
+		long bottom = Math.min((long) y + h, size);
+		if (left >= right || top >= bottom) {
+			return 0;
+		}
+		long black = countBlackIn(root, left, top, right, bottom);
+		if (colour.equals(Colour.BLACK)) {
+			return black;
+		}
+		return (right - left) * (bottom - top) - black;
+	}
+
+	// black pixels of the node inside the given rectangle, which lies within the bitmap
+	private long countBlackIn(Node node, long left, long top, long right, long bottom) {
+		long l = Math.max(left, node.x);
+		long t = Math.max(top, node.y);
+		long r = Math.min(right, node.x + node.size);
+		long b = Math.min(bottom, node.y + node.size);
+		if (l >= r || t >= b) {
+			return 0;
+		}
+		long overlap = (r - l) * (b - t);
+		if (overlap == node.area()) {
+			return blackCount(node);
+		} else if (node.blackCount == 0) {
+			return 0;
+		} else if (node.blackCount == node.area()) {
+			return overlap;
+		} else if (node.quadrants == null && node.size <= Long.SIZE) {
+			return countBits(l, t, r, b);
+		}
+		long black = 0;
+		for (Node quad : quadrants(node)) {
+			black += countBlackIn(quad, left, top, right, bottom);
+		}
+		return black;
+	}
+
+	/**
+	 * Builds a mutable quadtree bitmap holding the pixels of the bitset. Regions no query has
+	 * split are built straight from the bitset, and the counts of the nodes above them are
+	 * resolved bottom-up from their quadrants, so every bit is read about once.
+	 *
+	 * @return a new quadtree bitmap equal to the bitset
+	 */
+	public QuadtreeBitmap toQuadtreeBitmap() {
+		return build(root);
+	}
+
+	private QuadtreeBitmap build(Node node) {
+		long black = node.blackCount;
+		if (black == 0 || black == node.area()) {
+			return QuadtreeBitmap.region(node.x, node.y, node.size,
+					black == 0 ? Colour.WHITE : Colour.BLACK);
+		}
+		QuadtreeBitmap built;
+		if (node.quadrants == null) {
+			built = QuadtreeBitmap.fromBitset(bits, size, node.x, node.y, node.size);
+		} else {
+			Node[] quads = node.quadrants;
+			built = QuadtreeBitmap.join(build(quads[0]), build(quads[1]), build(quads[2]), build(quads[3]));
+		}
+		node.blackCount = built.countPixels(Colour.BLACK);
+		return built;
+	}
+
+	private long blackCount(Node node) {
+		if (node.blackCount < 0) {
+			Node[] quads = node.quadrants;
+			if (quads != null && quads[0].blackCount >= 0 && quads[1].blackCount >= 0
+					&& quads[2].blackCount >= 0 && quads[3].blackCount >= 0) {
+				node.blackCount = quads[0].blackCount + quads[1].blackCount
+						+ quads[2].blackCount + quads[3].blackCount;
+			} else {
+				node.blackCount = countBits(node.x, node.y, (long) node.x + node.size,
+						(long) node.y + node.size);
+			}
+		}
+		return node.blackCount;
+	}
+
+	private Node[] quadrants(Node node) {
+		if (node.quadrants == null) {
+			int half = node.size/2;
+			node.quadrants = new Node[] {
+					new Node(node.x, node.y, half),
+					new Node(node.x + half, node.y, half),
+					new Node(node.x, node.y + half, half),
+					new Node(node.x + half, node.y + half, half)};
+		}
+		return node.quadrants;
+	}
+
+	// number of black pixels in the given rectangle, a masked word or more per row
+	private long countBits(long left, long top, long right, long bottom) {
+		long count = 0;
+		for (long row = top; row < bottom; row++) {
+			count += countBits(row * size + left, row * size + right);
+		}
+		return count;
+	}
+
+	// number of set bits among the bits [from, to) of the bitset
+	private long countBits(long from, long to) {
+		int first = (int) (from >>> 6);
+		int last = (int) ((to - 1) >>> 6);
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> -to;
+		if (first == last) {
+			return Long.bitCount(bits[first] & firstMask & lastMask);
+		}
+		long count = Long.bitCount(bits[first] & firstMask) + Long.bitCount(bits[last] & lastMask);
+		for (int i = first + 1; i < last; i++) {
+			count += Long.bitCount(bits[i]);
+		}
+		return count;
+	}
+}
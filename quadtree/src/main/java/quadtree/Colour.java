@@ -1,3 +1,4 @@
+package quadtree;
 
 public enum Colour {
 	WHITE('.'),
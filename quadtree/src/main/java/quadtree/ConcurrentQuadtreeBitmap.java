@@ -0,0 +1,251 @@
+package quadtree;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe quadtree bitmap for several writers painting into different areas of one
+ * canvas. The top levels of the tree, down to a configurable stripe depth, are fixed: each
+ * of the resulting {@code 4^depth} regions is a separate {@link QuadtreeBitmap} with its own
+ * read-write lock. A write only locks the regions it touches, so writers in different
+ * regions never contend, and readers only wait for writers in the regions they read.
+ *
+ * Regions are never merged with each other while the bitmap is being written; merging
+ * uniform neighbours is deferred to {@link #toQuadtreeBitmap}, which assembles a simplified
+ * copy. Operations locking several regions always take them in the same order.
+ */
+public class ConcurrentQuadtreeBitmap {
+	/** Stripe depth used unless configured otherwise: 16 independently locked regions. */
+	public static final int DEFAULT_STRIPE_DEPTH = 2;
+
+	private final int size;
+	private final int stripeDepth;
+	// regions per side, and the height and width of each
+	private final int stripesPerSide;
+	private final int stripeSize;
+	// regions and their locks in row-major order
+	private final QuadtreeBitmap[] stripes;
+	private final ReadWriteLock[] locks;
+
+	/**
+	 * Constructs a new bitmap with height and width equal to the specified size, every
+	 * pixel initialized to the given colour, and locks striped down to the given depth of
+	 * the tree. The specified size must be a power of 2, and must be greater than zero; the
+	 * depth must be between zero and the depth of single pixels.
+	 *
+	 * @param size the height and width of this bitmap
+	 * @param colour the colour with which to initialize every pixel in this bitmap
+	 * @param stripeDepth the depth of the tree at which regions are locked separately
+	 */
+	public ConcurrentQuadtreeBitmap(int size, Colour colour, int stripeDepth) {
+		if (!QuadtreeBitmap.powerOfTwo(size)) {
+			throw new IllegalArgumentException("Size not power of 2.");
+		} else if (stripeDepth < 0 || stripeDepth > Integer.numberOfTrailingZeros(size)) {
+			throw new IllegalArgumentException("Stripe depth out of range.");
+		}
+		this.size = size;
+		this.stripeDepth = stripeDepth;
+		this.stripesPerSide = 1 << stripeDepth;
+		this.stripeSize = size >> stripeDepth;
+		this.stripes = new QuadtreeBitmap[stripesPerSide * stripesPerSide];
+		this.locks = new ReadWriteLock[stripes.length];
+		for (int i = 0; i < stripes.length; i++) {
+			int x = (i % stripesPerSide) * stripeSize;
+			int y = (i / stripesPerSide) * stripeSize;
+			stripes[i] = QuadtreeBitmap.region(x, y, stripeSize, colour);
+			locks[i] = new ReentrantReadWriteLock();
+		}
+	}
+
+	/**
+	 * Constructs a new bitmap with height and width equal to the specified size and every
+	 * pixel initialized to the given colour, using the default stripe depth, or less for
+	 * very small bitmaps.
+	 *
+	 * @param size the height and width of this bitmap
+	 * @param colour the colour with which to initialize every pixel in this bitmap
+	 */
+	public ConcurrentQuadtreeBitmap(int size, Colour colour) {
+		this(size, colour, Math.min(DEFAULT_STRIPE_DEPTH, Integer.numberOfTrailingZeros(Math.max(size, 1))));
+	}
+
+	/**
+	 * Returns the height and width of this bitmap.
+	 *
+	 * @return the size of this bitmap
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the depth of the tree at which regions are locked separately.
+	 *
+	 * @return the stripe depth of this bitmap
+	 */
+	public int getStripeDepth() {
+		return stripeDepth;
+	}
+
+	/**
+	 * Sets the colour of a single pixel at the specified location to the given colour,
+	 * locking only the region containing it. Locations outside the bitmap are ignored.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @param colour the colour to set the pixel at the given location to
+	 */
+	public void setPixel(int x, int y, Colour colour) {
+		if (x < 0 || y < 0 || x >= size || y >= size) {
+			return;
+		}
+		int stripe = stripeOf(x, y);
+		locks[stripe].writeLock().lock();
+		try {
+			stripes[stripe].setPixel(x, y, colour);
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the colour of every pixel within the given rectangle to the given colour, as
+	 * {@link QuadtreeBitmap#fillRect} does, locking only the regions the rectangle overlaps.
+	 * The rectangle is painted atomically.
+	 *
+	 * @param x the distance right of the origin of the rectangle's left edge
+	 * @param y the distance below the origin of the rectangle's top edge
+	 * @param w the width of the rectangle
+	 * @param h the height of the rectangle
+	 * @param colour the colour to give every pixel in the rectangle
+	 */
+	public void fillRect(int x, int y, int w, int h, Colour colour) {
+		if (w < 0 || h < 0) {
+			throw new IllegalArgumentException("Negative rectangle size.");
+		}
+		long left = Math.max(x, 0);
+		long top = Math.max(y, 0);
+		long right = Math.min((long) x + w, size);
+		long bottom = Math.min((long) y + h, size);
+		if (left >= right || top >= bottom) {
+			return;
+		}
+		int firstColumn = (int) (left / stripeSize);
+		int lastColumn = (int) ((right - 1) / stripeSize);
+		int firstRow = (int) (top / stripeSize);
+		int lastRow = (int) ((bottom - 1) / stripeSize);
+		// row-major order, the same order every multi-region operation locks in
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				locks[row * stripesPerSide + column].writeLock().lock();
+			}
+		}
+		try {
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int column = firstColumn; column <= lastColumn; column++) {
+					stripes[row * stripesPerSide + column].fillRect(x, y, w, h, colour);
+				}
+			}
+		} finally {
+			for (int row = lastRow; row >= firstRow; row--) {
+				for (int column = lastColumn; column >= firstColumn; column--) {
+					locks[row * stripesPerSide + column].writeLock().unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the colour of the pixel at the specified location.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @return the colour of the pixel at the given location
+	 */
+	public Colour getPixel(int x, int y) {
+		if (x < 0 || y < 0 || x >= size || y >= size) {
+			throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") outside bitmap.");
+		}
+		int stripe = stripeOf(x, y);
+		locks[stripe].readLock().lock();
+		try {
+			return stripes[stripe].getPixel(x, y);
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour in this bitmap, as of one moment
+	 * between the writes to it.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 */
+	public long countPixels(Colour colour) {
+		lockAllForReading();
+		try {
+			long count = 0;
+			for (QuadtreeBitmap stripe : stripes) {
+				count += stripe.countPixels(colour);
+			}
+			return count;
+		} finally {
+			unlockAllForReading();
+		}
+	}
+
+	/**
+	 * Returns a simplified copy of this bitmap as of one moment between the writes to it,
+	 * with uniform neighbouring regions merged.
+	 *
+	 * @return a new quadtree bitmap with the pixels of this bitmap
+	 */
+	public QuadtreeBitmap toQuadtreeBitmap() {
+		lockAllForReading();
+		try {
+			return assemble(0, 0, stripesPerSide);
+		} finally {
+			unlockAllForReading();
+		}
+	}
+
+	// joins the copies of the regions in the given square of the grid into one tree
+	private QuadtreeBitmap assemble(int column, int row, int span) {
+		if (span == 1) {
+			return stripes[row * stripesPerSide + column].copy();
+		}
+		int half = span/2;
+		return QuadtreeBitmap.join(assemble(column, row, half),
+				assemble(column + half, row, half),
+				assemble(column, row + half, half),
+				assemble(column + half, row + half, half));
+	}
+
+	/**
+	 * Returns a string representation of this bitmap, as {@link QuadtreeBitmap#toString}
+	 * does for the same pixels.
+	 *
+	 * @return a string representation of this bitmap
+	 */
+	@Override
+	public String toString() {
+		return toQuadtreeBitmap().toString();
+	}
+
+	private int stripeOf(int x, int y) {
+		return (y / stripeSize) * stripesPerSide + x / stripeSize;
+	}
+
+	private void lockAllForReading() {
+		for (ReadWriteLock lock : locks) {
+			lock.readLock().lock();
+		}
+	}
+
+	private void unlockAllForReading() {
+		for (int i = locks.length - 1; i >= 0; i--) {
+			locks[i].readLock().unlock();
+		}
+	}
+}
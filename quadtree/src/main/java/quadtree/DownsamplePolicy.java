@@ -0,0 +1,30 @@
+package quadtree;
+
+/**
+ * How {@link QuadtreeBitmap#downsample} decides the colour of a pixel standing for a block
+ * of pixels of the original bitmap.
+ */
+public enum DownsamplePolicy {
+	/** Black if any pixel of the block is black. */
+	ANY,
+	/** Black only if every pixel of the block is black. */
+	ALL,
+	/** Black if more than half of the pixels of the block are black. */
+	MAJORITY;
+
+	// the colour of a block of the given area holding the given number of black pixels
+	Colour colourOf(long black, long area) {
+		boolean result;
+		switch (this) {
+		case ANY:
+			result = black > 0;
+			break;
+		case ALL:
+			result = black == area;
+			break;
+		default:
+			result = 2 * black > area;
+		}
+		return result ? Colour.BLACK : Colour.WHITE;
+	}
+}
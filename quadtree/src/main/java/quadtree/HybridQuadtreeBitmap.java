@@ -0,0 +1,443 @@
+package quadtree;
+
+import java.util.Arrays;
+
+/**
+ * A quadtree bitmap with the same operations as {@link QuadtreeBitmap}, but whose tree
+ * stops at regions of {@value #TILE_SIZE} by {@value #TILE_SIZE} pixels. Each such region
+ * is a tile: a single {@code long} with one bit per pixel, in row-major order. A noisy tile
+ * would take up to 85 nodes as a pure quadtree; here it is one node and one word.
+ *
+ * Within a tile, counting is a {@link Long#bitCount}, inversion a complement, overlay and
+ * intersection a bitwise or and and, and setting a pixel a single mask. Dense and noisy
+ * bitmaps therefore cost little more than a plain bitset, while uniform regions larger than
+ * a tile still collapse into single leaves. The nodes do not store their location or size;
+ * both are derived while traversing from the root.
+ */
+public class HybridQuadtreeBitmap {
+	/** Height and width of the tiles at the bottom of the tree. */
+	public static final int TILE_SIZE = 8;
+
+	// height and width
+	private final int size;
+	// height and width of the tiles, smaller than TILE_SIZE only if the whole bitmap is
+	private final int tileSize;
+	// the bits of a tile with every pixel black
+	private final long fullTile;
+	private Node root;
+
+	// a uniform leaf or an internal node above the tiles, or a tile
+	private static final class Node {
+		// colour if a leaf above the tiles, null otherwise
+		Colour colour;
+		// if a tile: bit TILE_SIZE * y + x set when the pixel at (x, y) within it is black
+		long tile;
+		// number of black pixels in the region
+		long blackCount;
+		// children if an internal node
+		Node northWest;
+		Node northEast;
+		Node southWest;
+		Node southEast;
+	}
+
+	/**
+	 * Constructs a new bitmap with height and width equal to the specified size, and every
+	 * pixel initialized to the given colour. The specified size must be a power of 2, and
+	 * must be greater than zero.
+	 *
+	 * @param size the height and width of this bitmap
+	 * @param colour the colour with which to initialize every pixel in this bitmap
+	 */
+	public HybridQuadtreeBitmap(int size, Colour colour) {
+		if (!QuadtreeBitmap.powerOfTwo(size)) {
+			throw new IllegalArgumentException("Size not power of 2.");
+		}
+		this.size = size;
+		this.tileSize = Math.min(size, TILE_SIZE);
+		this.fullTile = squareMask(0, 0, tileSize);
+		this.root = leaf(size, colour);
+	}
+
+	/**
+	 * Constructs a new bitmap with height and width equal to the specified size, and every
+	 * pixel initialized to white. The specified size must be a power of 2, and must be
+	 * greater than zero.
+	 *
+	 * @param size the height and width of this bitmap
+	 */
+	public HybridQuadtreeBitmap(int size) {
+		this(size, Colour.WHITE);
+	}
+
+	/**
+	 * Returns the height and width of this bitmap.
+	 *
+	 * @return the size of this bitmap
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Constructs a bitmap from the string representation accepted by
+	 * {@link QuadtreeBitmap#fromString}. Fails with an {@code IllegalArgumentException} if
+	 * the input string does not properly encode a valid bitmap.
+	 *
+	 * @param bmpString input string to be converted into a bitmap
+	 * @return a bitmap representation of the input string
+	 */
+	public static HybridQuadtreeBitmap fromString(String bmpString) {
+		QuadtreeBitmap.validateBmpString(bmpString);
+		String[] rows = bmpString.split("\\R");
+		HybridQuadtreeBitmap bmp = new HybridQuadtreeBitmap(rows.length);
+		bmp.root = bmp.build(0, 0, rows.length, rows);
+		return bmp;
+	}
+
+	// builds bottom-up, reading each tile straight from the text
+	private Node build(int x, int y, int size, String[] rows) {
+		if (size == tileSize) {
+			long bits = 0;
+			for (int i = 0; i < size; i++) {
+				String row = rows[y + i];
+				for (int j = 0; j < size; j++) {
+					if (row.charAt(x + j) == Colour.BLACK.getTexture()) {
+						bits |= 1L << (TILE_SIZE * i + j);
+					}
+				}
+			}
+			return tile(bits);
+		}
+		int half = size/2;
+		return join(build(x, y, half, rows), build(x + half, y, half, rows),
+				build(x, y + half, half, rows), build(x + half, y + half, half, rows), size);
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour in this bitmap, in constant time.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 */
+	public long countPixels(Colour colour) {
+		if (colour.equals(Colour.BLACK)) {
+			return root.blackCount;
+		}
+		return (long) size * size - root.blackCount;
+	}
+
+	/**
+	 * Returns the colour of the pixel at the specified location.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @return the colour of the pixel at the given location
+	 */
+	public Colour getPixel(int x, int y) {
+		if (x < 0 || y < 0 || x >= size || y >= size) {
+			throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") outside bitmap.");
+		}
+		Node node = root;
+		int nodeX = 0, nodeY = 0;
+		for (int nodeSize = size; nodeSize > tileSize; nodeSize /= 2) {
+			if (node.colour != null) {
+				return node.colour;
+			}
+			int half = nodeSize/2;
+			boolean east = x >= nodeX + half;
+			boolean south = y >= nodeY + half;
+			node = south ? (east ? node.southEast : node.southWest) : (east ? node.northEast : node.northWest);
+			nodeX += east ? half : 0;
+			nodeY += south ? half : 0;
+		}
+		return (node.tile & bit(x - nodeX, y - nodeY)) != 0 ? Colour.BLACK : Colour.WHITE;
+	}
+
+	/**
+	 * Sets the colour of a single pixel at the specified location to the given colour.
+	 * Locations outside the bitmap are ignored.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @param colour the colour to set the pixel at the given location to
+	 */
+	public void setPixel(int x, int y, Colour colour) {
+		if (0 <= x && 0 <= y && x < size && y < size) {
+			setPixel(root, 0, 0, size, x, y, colour);
+		}
+	}
+
+	// descends towards the pixel, splitting leaves on the way, and collapses on the way back up
+	private void setPixel(Node node, int nodeX, int nodeY, int size, int x, int y, Colour colour) {
+		if (size == tileSize) {
+			long bit = bit(x - nodeX, y - nodeY);
+			node.tile = colour.equals(Colour.BLACK) ? node.tile | bit : node.tile & ~bit;
+			node.blackCount = Long.bitCount(node.tile);
+			return;
+		}
+		if (node.colour != null) {
+			if (node.colour.equals(colour)) {
+				return;
+			}
+			split(node, size);
+		}
+		int half = size/2;
+		if (y < nodeY + half) {
+			if (x < nodeX + half) {
+				setPixel(node.northWest, nodeX, nodeY, half, x, y, colour);
+			} else {
+				setPixel(node.northEast, nodeX + half, nodeY, half, x, y, colour);
+			}
+		} else {
+			if (x < nodeX + half) {
+				setPixel(node.southWest, nodeX, nodeY + half, half, x, y, colour);
+			} else {
+				setPixel(node.southEast, nodeX + half, nodeY + half, half, x, y, colour);
+			}
+		}
+		collapse(node, size);
+	}
+
+	/**
+	 * Inverts the colours in this bitmap, i.e. turns every black pixel white and every white
+	 * pixel black.
+	 */
+	public void invertColours() {
+		invertColours(root, size);
+	}
+
+	private void invertColours(Node node, int size) {
+		if (size == tileSize) {
+			node.tile = ~node.tile & fullTile;
+		} else if (node.colour != null) {
+			node.colour = node.colour.equals(Colour.BLACK) ? Colour.WHITE : Colour.BLACK;
+		} else {
+			invertColours(node.northWest, size/2);
+			invertColours(node.northEast, size/2);
+			invertColours(node.southWest, size/2);
+			invertColours(node.southEast, size/2);
+		}
+		node.blackCount = (long) size * size - node.blackCount;
+	}
+
+	/**
+	 * Constructs and returns the overlay of the two given bitmaps, as described by
+	 * {@link QuadtreeBitmap#computeOverlay}. Only supports bitmaps that are the same size;
+	 * neither input is modified.
+	 *
+	 * @param bmp1 the first of two bitmaps to compute the overlay of
+	 * @param bmp2 the second of two bitmaps to compute the overlay of
+	 * @return the newly constructed overlay, or null if the sizes differ
+	 */
+	public static HybridQuadtreeBitmap computeOverlay(HybridQuadtreeBitmap bmp1, HybridQuadtreeBitmap bmp2) {
+		return combine(bmp1, bmp2, Colour.BLACK);
+	}
+
+	/**
+	 * Constructs and returns the intersection of the two given bitmaps, as described by
+	 * {@link QuadtreeBitmap#computeIntersection}. Only supports bitmaps that are the same
+	 * size; neither input is modified.
+	 *
+	 * @param bmp1 the first of two bitmaps to compute the intersection of
+	 * @param bmp2 the second of two bitmaps to compute the intersection of
+	 * @return the newly constructed intersection, or null if the sizes differ
+	 */
+	public static HybridQuadtreeBitmap computeIntersection(HybridQuadtreeBitmap bmp1, HybridQuadtreeBitmap bmp2) {
+		return combine(bmp1, bmp2, Colour.WHITE);
+	}
+
+	// an overlay if black dominates, an intersection if white does
+	private static HybridQuadtreeBitmap combine(HybridQuadtreeBitmap bmp1, HybridQuadtreeBitmap bmp2,
+			Colour dominant) {
+		if (bmp1.size != bmp2.size) {
+			return null;
+		}
+		HybridQuadtreeBitmap result = new HybridQuadtreeBitmap(bmp1.size);
+		result.root = result.combine(bmp1.root, bmp2.root, bmp1.size, dominant);
+		return result;
+	}
+
+	// descends only where neither side is a uniform leaf, and combines tiles a word at a time
+	private Node combine(Node node1, Node node2, int size, Colour dominant) {
+		if (size == tileSize) {
+			return tile(dominant.equals(Colour.BLACK) ? node1.tile | node2.tile : node1.tile & node2.tile);
+		} else if (dominant.equals(node1.colour) || dominant.equals(node2.colour)) {
+			return leaf(size, dominant);
+		} else if (node1.colour != null) {
+			return copy(node2, size);
+		} else if (node2.colour != null) {
+			return copy(node1, size);
+		}
+		int half = size/2;
+		return join(combine(node1.northWest, node2.northWest, half, dominant),
+				combine(node1.northEast, node2.northEast, half, dominant),
+				combine(node1.southWest, node2.southWest, half, dominant),
+				combine(node1.southEast, node2.southEast, half, dominant), size);
+	}
+
+	private Node copy(Node node, int size) {
+		if (size == tileSize) {
+			return tile(node.tile);
+		} else if (node.colour != null) {
+			return leaf(size, node.colour);
+		}
+		int half = size/2;
+		Node copy = new Node();
+		copy.northWest = copy(node.northWest, half);
+		copy.northEast = copy(node.northEast, half);
+		copy.southWest = copy(node.southWest, half);
+		copy.southEast = copy(node.southEast, half);
+		copy.blackCount = node.blackCount;
+		return copy;
+	}
+
+	/**
+	 * Returns a string representation of this bitmap, identical to the one
+	 * {@link QuadtreeBitmap#toString} gives for the same pixels.
+	 *
+	 * @return a string representation of this bitmap
+	 */
+	@Override
+	public String toString() {
+		char[][] canvas = new char[size][size];
+		printToCanvas(canvas, root, 0, 0, size);
+		return QuadtreeBitmap.canvasToString(canvas);
+	}
+
+	private void printToCanvas(char[][] canvas, Node node, int x, int y, int size) {
+		if (size == tileSize) {
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					canvas[y + i][x + j] = (node.tile & bit(j, i)) != 0
+							? Colour.BLACK.getTexture() : Colour.WHITE.getTexture();
+				}
+			}
+		} else if (node.colour != null) {
+			for (int i = y; i < y + size; i++) {
+				Arrays.fill(canvas[i], x, x + size, node.colour.getTexture());
+			}
+		} else {
+			int half = size/2;
+			printToCanvas(canvas, node.northWest, x, y, half);
+			printToCanvas(canvas, node.northEast, x + half, y, half);
+			printToCanvas(canvas, node.southWest, x, y + half, half);
+			printToCanvas(canvas, node.southEast, x + half, y + half, half);
+		}
+	}
+
+	/**
+	 * Returns a string representation of the tree structure of this bitmap, identical to
+	 * the one {@link QuadtreeBitmap#toTreeString} gives for the same pixels. Tiles are drawn
+	 * as the simplified quadtrees they stand for.
+	 *
+	 * @return a string representation of this quadtree
+	 */
+	public String toTreeString() {
+		char[][] canvas = new char[2*size + 1][2*size + 1];
+		printTreeToCanvas(canvas, root, 0, 0, size);
+		return QuadtreeBitmap.canvasToString(canvas);
+	}
+
+	private void printTreeToCanvas(char[][] canvas, Node node, int x, int y, int size) {
+		if (size == tileSize) {
+			printTileToCanvas(canvas, node.tile, x, y, 0, 0, size);
+		} else if (node.colour != null) {
+			QuadtreeBitmap.printLeafBoxToCanvas(canvas, 2*x, 2*y, size, node.colour);
+		} else {
+			int half = size/2;
+			printTreeToCanvas(canvas, node.northWest, x, y, half);
+			printTreeToCanvas(canvas, node.northEast, x + half, y, half);
+			printTreeToCanvas(canvas, node.southWest, x, y + half, half);
+			printTreeToCanvas(canvas, node.southEast, x + half, y + half, half);
+		}
+	}
+
+	// draws the square of a tile at the given offset within it as a leaf if it is uniform
+	private static void printTileToCanvas(char[][] canvas, long tile, int x, int y,
+			int tileX, int tileY, int size) {
+		long mask = squareMask(tileX, tileY, size);
+		if ((tile & mask) == 0 || (tile & mask) == mask) {
+			QuadtreeBitmap.printLeafBoxToCanvas(canvas, 2*(x + tileX), 2*(y + tileY), size,
+					(tile & mask) == 0 ? Colour.WHITE : Colour.BLACK);
+			return;
+		}
+		int half = size/2;
+		printTileToCanvas(canvas, tile, x, y, tileX, tileY, half);
+		printTileToCanvas(canvas, tile, x, y, tileX + half, tileY, half);
+		printTileToCanvas(canvas, tile, x, y, tileX, tileY + half, half);
+		printTileToCanvas(canvas, tile, x, y, tileX + half, tileY + half, half);
+	}
+
+	/////////////////////////////////////////////////////////////////////////
+	// Nodes and tiles
+	/////////////////////////////////////////////////////////////////////////
+
+	// the bit of the pixel at the given location within a tile
+	private static long bit(int tileX, int tileY) {
+		return 1L << (TILE_SIZE * tileY + tileX);
+	}
+
+	// the bits of the square of pixels at the given location within a tile
+	private static long squareMask(int tileX, int tileY, int size) {
+		long row = ((1L << size) - 1) << tileX;
+		long mask = 0;
+		for (int i = tileY; i < tileY + size; i++) {
+			mask |= row << (TILE_SIZE * i);
+		}
+		return mask;
+	}
+
+	private static Node tile(long bits) {
+		Node tile = new Node();
+		tile.tile = bits;
+		tile.blackCount = Long.bitCount(bits);
+		return tile;
+	}
+
+	// a uniform region of the given size, which is a tile at the bottom of the tree
+	private Node leaf(int size, Colour colour) {
+		if (size == tileSize) {
+			return tile(colour.equals(Colour.BLACK) ? fullTile : 0);
+		}
+		Node leaf = new Node();
+		leaf.colour = colour;
+		leaf.blackCount = colour.equals(Colour.BLACK) ? (long) size * size : 0;
+		return leaf;
+	}
+
+	// combines four adjacent regions into the node covering all of them, merged if uniform
+	private Node join(Node northWest, Node northEast, Node southWest, Node southEast, int size) {
+		Node node = new Node();
+		node.northWest = northWest;
+		node.northEast = northEast;
+		node.southWest = southWest;
+		node.southEast = southEast;
+		collapse(node, size);
+		return node;
+	}
+
+	// turns a leaf into an internal node with four children of the leaf's colour
+	private void split(Node node, int size) {
+		Colour colour = node.colour;
+		node.northWest = leaf(size/2, colour);
+		node.northEast = leaf(size/2, colour);
+		node.southWest = leaf(size/2, colour);
+		node.southEast = leaf(size/2, colour);
+		node.colour = null;
+	}
+
+	// recounts an internal node, and turns it back into a leaf if its region is uniform
+	private void collapse(Node node, int size) {
+		long count = node.northWest.blackCount + node.northEast.blackCount
+				+ node.southWest.blackCount + node.southEast.blackCount;
+		node.blackCount = count;
+		if (count == 0 || count == (long) size * size) {
+			node.colour = count == 0 ? Colour.WHITE : Colour.BLACK;
+			node.northWest = null;
+			node.northEast = null;
+			node.southWest = null;
+			node.southEast = null;
+		}
+	}
+}
@@ -0,0 +1,407 @@
+package quadtree;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A persistent, immutable variant of {@link QuadtreeBitmap}. Every node is hash-consed:
+ * identical subtrees anywhere in any bitmap are represented by one canonical instance, held
+ * in a weak table so that it is reclaimed once no bitmap uses it. Memory therefore grows with
+ * the amount of unique structure rather than with area, and two bitmaps hold the same pixels
+ * exactly when they are the same object, so {@code ==} is a complete equality test.
+ *
+ * Nodes do not know their location, which is what allows a subtree to be shared between
+ * different places. Operations never modify a bitmap, but return a new one which shares
+ * every unchanged subtree with its input.
+ */
+public final class ImmutableQuadtreeBitmap {
+	// canonical instance of every live node, keyed by itself and split by hash into 
+	// independently locked stripes, so that concurrent builds and writers rarely contend
+	private static final int STRIPES = 64;
+	private static final Stripe[] CANONICAL = new Stripe[STRIPES];
+	static {
+		for (int i = 0; i < STRIPES; i++) {
+			CANONICAL[i] = new Stripe();
+		}
+	}
+
+	// height and width
+	private final int size;
+	// colour if leaf, null otherwise
+	private final Colour colour;
+	// children if not a leaf, each canonical
+	private final ImmutableQuadtreeBitmap northWest;
+	private final ImmutableQuadtreeBitmap northEast;
+	private final ImmutableQuadtreeBitmap southWest;
+	private final ImmutableQuadtreeBitmap southEast;
+	// number of black pixels in the region
+	private final long blackCount;
+	// hash over size and colour, or the identities of the children
+	private final int hash;
+	// memoized result of invertColours, shared by every use of this node
+	private ImmutableQuadtreeBitmap inverse;
+
+	private ImmutableQuadtreeBitmap(int size, Colour colour) {
+		this.size = size;
+		this.colour = colour;
+		this.northWest = null;
+		this.northEast = null;
+		this.southWest = null;
+		this.southEast = null;
+		this.blackCount = colour.equals(Colour.BLACK) ? (long) size * size : 0;
+		this.hash = 31 * size + colour.hashCode();
+	}
+
+	private ImmutableQuadtreeBitmap(ImmutableQuadtreeBitmap northWest, ImmutableQuadtreeBitmap northEast,
+			ImmutableQuadtreeBitmap southWest, ImmutableQuadtreeBitmap southEast) {
+		this.size = 2 * northWest.size;
+		this.colour = null;
+		this.northWest = northWest;
+		this.northEast = northEast;
+		this.southWest = southWest;
+		this.southEast = southEast;
+		this.blackCount = northWest.blackCount + northEast.blackCount
+				+ southWest.blackCount + southEast.blackCount;
+		this.hash = Arrays.hashCode(new int[] {
+				System.identityHashCode(northWest), System.identityHashCode(northEast),
+				System.identityHashCode(southWest), System.identityHashCode(southEast)});
+	}
+
+	/**
+	 * Returns the bitmap with height and width equal to the specified size, and every pixel
+	 * of the given colour. The specified size must be a power of 2, and must be greater than
+	 * zero.
+	 *
+	 * @param size the height and width of the bitmap
+	 * @param colour the colour of every pixel in the bitmap
+	 * @return the canonical uniform bitmap of the given size and colour
+	 */
+	public static ImmutableQuadtreeBitmap of(int size, Colour colour) {
+		if (!QuadtreeBitmap.powerOfTwo(size)) {
+			throw new IllegalArgumentException("Size not power of 2.");
+		}
+		return leaf(size, colour);
+	}
+
+	/**
+	 * Constructs a bitmap from the string representation accepted by
+	 * {@link QuadtreeBitmap#fromString}. Fails with an {@code IllegalArgumentException} if
+	 * the input string does not properly encode a valid bitmap.
+	 *
+	 * @param bmpString input string to be converted into a bitmap
+	 * @return a bitmap representation of the input string
+	 */
+	public static ImmutableQuadtreeBitmap fromString(String bmpString) {
+		QuadtreeBitmap.Builder builder = new QuadtreeBitmap.Builder();
+		for (String row : bmpString.split("\\R")) {
+			builder.addRow(row);
+		}
+		return from(builder.build());
+	}
+
+	// interns the given tree bottom-up, so that every repeated region resolves to its 
+	// canonical node; uniform regions were already merged by the builder, so this takes 
+	// one intern per node rather than one per pixel
+	private static ImmutableQuadtreeBitmap from(QuadtreeBitmap quad) {
+		Colour uniform = quad.uniformColour();
+		if (uniform != null) {
+			return leaf(quad.getSize(), uniform);
+		}
+		return node(from(quad.quadrant(0)), from(quad.quadrant(1)),
+				from(quad.quadrant(2)), from(quad.quadrant(3)));
+	}
+
+	private static ImmutableQuadtreeBitmap leaf(int size, Colour colour) {
+		return intern(new ImmutableQuadtreeBitmap(size, colour));
+	}
+
+	// combines four canonical quadrants, collapsing them if they are the same uniform leaf
+	private static ImmutableQuadtreeBitmap node(ImmutableQuadtreeBitmap northWest,
+			ImmutableQuadtreeBitmap northEast, ImmutableQuadtreeBitmap southWest,
+			ImmutableQuadtreeBitmap southEast) {
+		if (northWest.isLeaf() && northWest == northEast
+				&& northWest == southWest && northWest == southEast) {
+			return leaf(2 * northWest.size, northWest.colour);
+		}
+		return intern(new ImmutableQuadtreeBitmap(northWest, northEast, southWest, southEast));
+	}
+
+	private static ImmutableQuadtreeBitmap intern(ImmutableQuadtreeBitmap candidate) {
+		int h = candidate.hash;
+		Stripe stripe = CANONICAL[(h ^ (h >>> 16)) & (STRIPES - 1)];
+		synchronized (stripe) {
+			WeakReference<ImmutableQuadtreeBitmap> ref = stripe.nodes.get(candidate);
+			ImmutableQuadtreeBitmap existing = ref == null ? null : ref.get();
+			if (existing != null) {
+				return existing;
+			}
+			stripe.nodes.put(candidate, new WeakReference<>(candidate));
+			return candidate;
+		}
+	}
+
+	// one stripe of the canonical table, guarded by its own monitor
+	private static final class Stripe {
+		private final Map<ImmutableQuadtreeBitmap, WeakReference<ImmutableQuadtreeBitmap>> nodes =
+				new WeakHashMap<>();
+	}
+
+	private boolean isLeaf() {
+		return colour != null;
+	}
+
+	/**
+	 * Returns the height and width of this bitmap.
+	 *
+	 * @return the size of this bitmap
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour in this bitmap, in constant time.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 */
+	public long countPixels(Colour colour) {
+		if (colour.equals(Colour.BLACK)) {
+			return blackCount;
+		}
+		return (long) size * size - blackCount;
+	}
+
+	/**
+	 * Returns the colour of the pixel at the specified location.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @return the colour of the pixel at the given location
+	 */
+	public Colour getPixel(int x, int y) {
+		if (x < 0 || y < 0 || x >= size || y >= size) {
+			throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") outside bitmap.");
+		}
+		ImmutableQuadtreeBitmap node = this;
+		while (!node.isLeaf()) {
+			int half = node.size/2;
+			node = node.quadrant(x >= half, y >= half);
+			x %= half;
+			y %= half;
+		}
+		return node.colour;
+	}
+
+	private ImmutableQuadtreeBitmap quadrant(boolean east, boolean south) {
+		if (south) {
+			return east ? southEast : southWest;
+		} else {
+			return east ? northEast : northWest;
+		}
+	}
+
+	/**
+	 * Returns a bitmap which is identical to this one except for the pixel at the specified
+	 * location, which has the given colour. Only the nodes on the path to the pixel are
+	 * rebuilt; everything else is shared with this bitmap. Locations outside the bitmap
+	 * leave it unchanged.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @param colour the colour to give the pixel at the given location
+	 * @return the bitmap with the pixel set
+	 */
+	public ImmutableQuadtreeBitmap setPixel(int x, int y, Colour colour) {
+		if (x < 0 || y < 0 || x >= size || y >= size) {
+			return this;
+		}
+		if (isLeaf()) {
+			if (this.colour.equals(colour)) {
+				return this;
+			}
+			if (size == 1) {
+				return leaf(1, colour);
+			}
+		}
+		int half = size/2;
+		ImmutableQuadtreeBitmap nw = isLeaf() ? leaf(half, this.colour) : northWest;
+		ImmutableQuadtreeBitmap ne = isLeaf() ? nw : northEast;
+		ImmutableQuadtreeBitmap sw = isLeaf() ? nw : southWest;
+		ImmutableQuadtreeBitmap se = isLeaf() ? nw : southEast;
+		if (y < half) {
+			if (x < half) {
+				nw = nw.setPixel(x, y, colour);
+			} else {
+				ne = ne.setPixel(x - half, y, colour);
+			}
+		} else {
+			if (x < half) {
+				sw = sw.setPixel(x, y - half, colour);
+			} else {
+				se = se.setPixel(x - half, y - half, colour);
+			}
+		}
+		return node(nw, ne, sw, se);
+	}
+
+	/**
+	 * Returns the inverse of this bitmap, in which every black pixel is white and every
+	 * white pixel black. Results are memoized per node, so inverting a bitmap which shares
+	 * structure with one inverted before only computes what is new.
+	 *
+	 * @return the inverse of this bitmap
+	 */
+	public ImmutableQuadtreeBitmap invertColours() {
+		ImmutableQuadtreeBitmap result = inverse;
+		if (result == null) {
+			if (isLeaf()) {
+				result = leaf(size, colour.equals(Colour.BLACK) ? Colour.WHITE : Colour.BLACK);
+			} else {
+				result = node(northWest.invertColours(), northEast.invertColours(),
+						southWest.invertColours(), southEast.invertColours());
+			}
+			inverse = result;
+			result.inverse = this;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the overlay of the two given bitmaps, as described by
+	 * {@link QuadtreeBitmap#computeOverlay}. Only supports bitmaps that are the same size.
+	 * Pairs of subtrees are merged once however often they recur, and a uniform white side
+	 * shares the other side's subtree as is.
+	 *
+	 * @param bmp1 the first of two bitmaps to compute the overlay of
+	 * @param bmp2 the second of two bitmaps to compute the overlay of
+	 * @return the overlay of the two bitmaps, or null if the sizes differ
+	 */
+	public static ImmutableQuadtreeBitmap computeOverlay(ImmutableQuadtreeBitmap bmp1,
+			ImmutableQuadtreeBitmap bmp2) {
+		if (bmp1.size != bmp2.size) {
+			return null;
+		}
+		return overlay(bmp1, bmp2, new HashMap<>());
+	}
+
+	private static ImmutableQuadtreeBitmap overlay(ImmutableQuadtreeBitmap quad1,
+			ImmutableQuadtreeBitmap quad2, Map<Pair, ImmutableQuadtreeBitmap> memo) {
+		if (quad1 == quad2) {
+			return quad1;
+		} else if (quad1.isLeaf()) {
+			return quad1.colour.equals(Colour.BLACK) ? quad1 : quad2;
+		} else if (quad2.isLeaf()) {
+			return quad2.colour.equals(Colour.BLACK) ? quad2 : quad1;
+		}
+		Pair key = new Pair(quad1, quad2);
+		ImmutableQuadtreeBitmap result = memo.get(key);
+		if (result == null) {
+			result = node(overlay(quad1.northWest, quad2.northWest, memo),
+					overlay(quad1.northEast, quad2.northEast, memo),
+					overlay(quad1.southWest, quad2.southWest, memo),
+					overlay(quad1.southEast, quad2.southEast, memo));
+			memo.put(key, result);
+		}
+		return result;
+	}
+
+	// memo key for binary operations, comparing its canonical members by identity
+	private static final class Pair {
+		private final ImmutableQuadtreeBitmap first;
+		private final ImmutableQuadtreeBitmap second;
+
+		Pair(ImmutableQuadtreeBitmap first, ImmutableQuadtreeBitmap second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Pair
+					&& ((Pair) other).first == first && ((Pair) other).second == second;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * first.hash + second.hash;
+		}
+	}
+
+	/**
+	 * Compares the top level of two nodes only: leaves by size and colour, internal nodes by
+	 * the identity of their children. As all instances reachable through the public API are
+	 * canonical, this agrees with {@code ==}.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		} else if (!(other instanceof ImmutableQuadtreeBitmap)) {
+			return false;
+		}
+		ImmutableQuadtreeBitmap that = (ImmutableQuadtreeBitmap) other;
+		return size == that.size && colour == that.colour
+				&& northWest == that.northWest && northEast == that.northEast
+				&& southWest == that.southWest && southEast == that.southEast;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * Returns a string representation of this bitmap, identical to the one
+	 * {@link QuadtreeBitmap#toString} gives for the same pixels.
+	 *
+	 * @return a string representation of this bitmap
+	 */
+	@Override
+	public String toString() {
+		char[][] canvas = new char[size][size];
+		printToCanvas(canvas, 0, 0);
+		return QuadtreeBitmap.canvasToString(canvas);
+	}
+
+	private void printToCanvas(char[][] canvas, int x, int y) {
+		if (isLeaf()) {
+			for (int i = y; i < y + size; i++) {
+				Arrays.fill(canvas[i], x, x + size, colour.getTexture());
+			}
+		} else {
+			int half = size/2;
+			northWest.printToCanvas(canvas, x, y);
+			northEast.printToCanvas(canvas, x + half, y);
+			southWest.printToCanvas(canvas, x, y + half);
+			southEast.printToCanvas(canvas, x + half, y + half);
+		}
+	}
+
+	/**
+	 * Returns a string representation of the tree structure of this bitmap, identical to
+	 * the one {@link QuadtreeBitmap#toTreeString} gives for the same pixels.
+	 *
+	 * @return a string representation of this quadtree
+	 */
+	public String toTreeString() {
+		char[][] canvas = new char[2*size + 1][2*size + 1];
+		printTreeToCanvas(canvas, 0, 0);
+		return QuadtreeBitmap.canvasToString(canvas);
+	}
+
+	private void printTreeToCanvas(char[][] canvas, int x, int y) {
+		if (isLeaf()) {
+			QuadtreeBitmap.printLeafBoxToCanvas(canvas, 2*x, 2*y, size, colour);
+		} else {
+			int half = size/2;
+			northWest.printTreeToCanvas(canvas, x, y);
+			northEast.printTreeToCanvas(canvas, x + half, y);
+			southWest.printTreeToCanvas(canvas, x, y + half);
+			southEast.printTreeToCanvas(canvas, x + half, y + half);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package quadtree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only view of a bitmap snapshot written by {@link QuadtreeBitmap#writeBinary}, mapped
+ * into memory straight from its file. Opening a snapshot only reads its header; queries walk
+ * the mapped node codes in place without building any nodes, and the operating system pages
+ * the file in as it is touched. Use {@link #toQuadtreeBitmap} for a mutable copy.
+ */
+public final class MappedQuadtreeBitmap {
+	private final QuadtreeBinaryFormat header;
+	// the node codes, mapped from the file
+	private final ByteBuffer payload;
+
+	private MappedQuadtreeBitmap(QuadtreeBinaryFormat header, ByteBuffer payload) {
+		this.header = header;
+		this.payload = payload;
+	}
+
+	/**
+	 * Maps the snapshot at the given path, verifying its checksum.
+	 *
+	 * @param path the snapshot file
+	 * @return a view of the snapshot
+	 * @throws IOException if the file cannot be mapped or is not a valid snapshot
+	 */
+	public static MappedQuadtreeBitmap open(Path path) throws IOException {
+		return open(path, true);
+	}
+
+	/**
+	 * Maps the snapshot at the given path. Verifying the checksum reads the whole payload
+	 * once; skipping it makes opening independent of the size of the snapshot, and leaves
+	 * corruption to be detected, if at all, by later queries.
+	 *
+	 * @param path the snapshot file
+	 * @param verify whether to check the payload against its checksum
+	 * @return a view of the snapshot
+	 * @throws IOException if the file cannot be mapped or is not a valid snapshot
+	 */
+	public static MappedQuadtreeBitmap open(Path path, boolean verify) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer headerBytes = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					Math.min(channel.size(), QuadtreeBinaryFormat.HEADER_BYTES));
+			QuadtreeBinaryFormat header = QuadtreeBinaryFormat.readHeader(headerBytes);
+			long payloadBytes = header.payloadBytes();
+			if (payloadBytes > Integer.MAX_VALUE) {
+				throw new IOException("Snapshot too large to map.");
+			} else if (channel.size() < QuadtreeBinaryFormat.HEADER_BYTES + payloadBytes) {
+				throw new IOException("Snapshot payload truncated.");
+			}
+			// the mapping stays valid once the channel is closed
+			ByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY,
+					QuadtreeBinaryFormat.HEADER_BYTES, payloadBytes);
+			if (verify) {
+				header.verify(payload);
+			}
+			return new MappedQuadtreeBitmap(header, payload);
+		}
+	}
+
+	/**
+	 * Returns the height and width of the bitmap.
+	 *
+	 * @return the size of the bitmap
+	 */
+	public int getSize() {
+		return header.size;
+	}
+
+	/**
+	 * Returns the number of nodes in the snapshot.
+	 *
+	 * @return the number of nodes stored
+	 */
+	public long getNodeCount() {
+		return header.nodeCount;
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour, in one pass over the node codes.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 * @throws IOException if the snapshot turns out to be corrupt
+	 */
+	public long countPixels(Colour colour) throws IOException {
+		long[] cursor = {0};
+		long black = countBlack(cursor, header.size);
+		if (colour.equals(Colour.BLACK)) {
+			return black;
+		}
+		return (long) header.size * header.size - black;
+	}
+
+	private long countBlack(long[] cursor, int size) throws IOException {
+		int code = next(cursor);
+		if (code == QuadtreeBinaryFormat.BLACK) {
+			return (long) size * size;
+		} else if (code == QuadtreeBinaryFormat.WHITE) {
+			return 0;
+		} else if (size == 1) {
+			throw new IOException("Corrupt snapshot node.");
+		}
+		long black = 0;
+		for (int i = 0; i < 4; i++) {
+			black += countBlack(cursor, size/2);
+		}
+		return black;
+	}
+
+	/**
+	 * Returns the colour of the pixel at the specified location, skipping over the
+	 * quadrants which do not contain it.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @return the colour of the pixel at the given location
+	 * @throws IOException if the snapshot turns out to be corrupt
+	 */
+	public Colour getPixel(int x, int y) throws IOException {
+		if (x < 0 || y < 0 || x >= header.size || y >= header.size) {
+			throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") outside bitmap.");
+		}
+		long[] cursor = {0};
+		int size = header.size;
+		int code;
+		while ((code = next(cursor)) == QuadtreeBinaryFormat.INTERNAL) {
+			if (size == 1) {
+				throw new IOException("Corrupt snapshot node.");
+			}
+			size /= 2;
+			int quad = (x < size ? 0 : 1) + (y < size ? 0 : 2);
+			for (int i = 0; i < quad; i++) {
+				cursor[0] = QuadtreeBinaryFormat.skip(payload, cursor[0], header.nodeCount);
+			}
+			x %= size;
+			y %= size;
+		}
+		return code == QuadtreeBinaryFormat.BLACK ? Colour.BLACK : Colour.WHITE;
+	}
+
+	/**
+	 * Builds a mutable quadtree bitmap holding the pixels of the snapshot.
+	 *
+	 * @return a new quadtree bitmap equal to the snapshot
+	 * @throws IOException if the snapshot turns out to be corrupt
+	 */
+	public QuadtreeBitmap toQuadtreeBitmap() throws IOException {
+		return QuadtreeBitmap.decode(payload.duplicate(), header);
+	}
+
+	private int next(long[] cursor) throws IOException {
+		if (cursor[0] >= header.nodeCount) {
+			throw new IOException("Snapshot payload truncated.");
+		}
+		int code = QuadtreeBinaryFormat.code(payload, cursor[0]++);
+		if (code > QuadtreeBinaryFormat.INTERNAL) {
+			throw new IOException("Corrupt snapshot node.");
+		}
+		return code;
+	}
+}
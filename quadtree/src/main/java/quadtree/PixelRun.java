@@ -0,0 +1,83 @@
+package quadtree;
+
+/**
+ * A horizontal run of consecutive pixels of the same colour within one row of a bitmap,
+ * from {@code xStart} up to but excluding {@code xEnd}.
+ */
+public final class PixelRun {
+	private final int y;
+	private final int xStart;
+	private final int xEnd;
+
+	/**
+	 * Creates a run covering the pixels from {@code xStart} up to but excluding
+	 * {@code xEnd} in row {@code y}.
+	 *
+	 * @param y the distance below the origin of the run's row
+	 * @param xStart the distance right of the origin of the run's first pixel
+	 * @param xEnd the distance right of the origin of the pixel just after the run
+	 */
+	public PixelRun(int y, int xStart, int xEnd) {
+		if (xEnd <= xStart) {
+			throw new IllegalArgumentException("Empty run.");
+		}
+		this.y = y;
+		this.xStart = xStart;
+		this.xEnd = xEnd;
+	}
+
+	/**
+	 * Returns the row of this run.
+	 *
+	 * @return the distance below the origin of the run's row
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Returns the first column of this run.
+	 *
+	 * @return the distance right of the origin of the run's first pixel
+	 */
+	public int getXStart() {
+		return xStart;
+	}
+
+	/**
+	 * Returns the column just after this run.
+	 *
+	 * @return the distance right of the origin of the pixel just after the run
+	 */
+	public int getXEnd() {
+		return xEnd;
+	}
+
+	/**
+	 * Returns the number of pixels in this run.
+	 *
+	 * @return the length of this run
+	 */
+	public int length() {
+		return xEnd - xStart;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof PixelRun)) {
+			return false;
+		}
+		PixelRun run = (PixelRun) other;
+		return y == run.y && xStart == run.xStart && xEnd == run.xEnd;
+	}
+
+	@Override
+	public int hashCode() {
+		return (31 * y + xStart) * 31 + xEnd;
+	}
+
+	@Override
+	public String toString() {
+		return "(" + y + ", " + xStart + ", " + xEnd + ")";
+	}
+}
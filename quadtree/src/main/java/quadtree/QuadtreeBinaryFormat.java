@@ -0,0 +1,125 @@
+package quadtree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The binary snapshot format shared by {@link QuadtreeBitmap#writeBinary} and
+ * {@link MappedQuadtreeBitmap}. A snapshot is a fixed header followed by the nodes of the
+ * tree in pre-order (north-west, north-east, south-west, south-east), two bits per node,
+ * packed most significant bits first:
+ *
+ * <pre>
+ *   int   magic       'Q' 'T' 'B' '1'
+ *   int   size        height and width of the bitmap
+ *   long  nodeCount   number of nodes in the payload
+ *   int   checksum    CRC-32 of the payload
+ *   byte[(nodeCount + 3) / 4]  payload
+ * </pre>
+ *
+ * All integers are big-endian. Leaf codes stand for a uniform region, the internal code is
+ * followed by the codes of the four quadrants.
+ */
+final class QuadtreeBinaryFormat {
+	static final int MAGIC = 0x51544231;
+	static final int HEADER_BYTES = 20;
+
+	// node codes
+	static final int WHITE = 0;
+	static final int BLACK = 1;
+	static final int INTERNAL = 2;
+
+	// values read from a header
+	final int size;
+	final long nodeCount;
+	final int checksum;
+
+	private QuadtreeBinaryFormat(int size, long nodeCount, int checksum) {
+		this.size = size;
+		this.nodeCount = nodeCount;
+		this.checksum = checksum;
+	}
+
+	static ByteBuffer header(int size, long nodeCount, int checksum) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC).putInt(size).putLong(nodeCount).putInt(checksum);
+		header.flip();
+		return header;
+	}
+
+	// reads and checks the header at the start of the buffer
+	static QuadtreeBinaryFormat readHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a quadtree bitmap snapshot.");
+		}
+		int size = buffer.getInt(4);
+		long nodeCount = buffer.getLong(8);
+		if (!QuadtreeBitmap.powerOfTwo(size) || nodeCount < 1) {
+			throw new IOException("Corrupt snapshot header.");
+		}
+		return new QuadtreeBinaryFormat(size, nodeCount, buffer.getInt(16));
+	}
+
+	long payloadBytes() {
+		return (nodeCount + 3) / 4;
+	}
+
+	// fails unless the payload has the length and checksum recorded in the header
+	void verify(ByteBuffer payload) throws IOException {
+		if (payload.remaining() != payloadBytes()) {
+			throw new IOException("Snapshot payload truncated.");
+		}
+		if (checksum(payload) != checksum) {
+			throw new IOException("Snapshot checksum mismatch.");
+		}
+	}
+
+	static int checksum(ByteBuffer payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload.duplicate());
+		return (int) crc.getValue();
+	}
+
+	// the code of the node at the given pre-order index of a payload
+	static int code(ByteBuffer payload, long index) {
+		int b = payload.get(payload.position() + (int) (index >>> 2));
+		return (b >>> (6 - 2 * (int) (index & 3))) & 3;
+	}
+
+	// the pre-order index just past the subtree starting at the given index
+	static long skip(ByteBuffer payload, long index, long nodeCount) throws IOException {
+		long open = 1;
+		while (open > 0) {
+			if (index >= nodeCount) {
+				throw new IOException("Snapshot payload truncated.");
+			}
+			open += code(payload, index++) == INTERNAL ? 3 : -1;
+		}
+		return index;
+	}
+
+	// accumulates node codes into a packed payload
+	static final class CodeWriter {
+		private byte[] bytes = new byte[64];
+		private long count = 0;
+
+		void write(int code) {
+			int i = (int) (count >>> 2);
+			if (i == bytes.length) {
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+			bytes[i] |= code << (6 - 2 * (int) (count & 3));
+			count++;
+		}
+
+		long count() {
+			return count;
+		}
+
+		ByteBuffer payload() {
+			return ByteBuffer.wrap(bytes, 0, (int) ((count + 3) / 4));
+		}
+	}
+}
@@ -0,0 +1,3029 @@
+package quadtree;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import java.util.regex.Pattern;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+
+public class QuadtreeBitmap {
+	// location
+	private final int x;
+	private final int y;
+	// height and width
+	private final int size;
+	// if leaf
+	private boolean leaf;
+	// either Colour.BLACK or Colour.WHITE
+	private Colour colour;
+	// number of black pixels in the region, kept up to date by every mutation
+	private long blackCount;
+	// hash of the pixels of the region, equal for equal regions however they are 
+	// subdivided, and kept up to date together with blackCount
+	private long hash;
+	// otherwise
+	private QuadtreeBitmap northWest;
+	private QuadtreeBitmap northEast;
+	private QuadtreeBitmap southWest;
+	private QuadtreeBitmap southEast;
+
+	/**
+	 * Constructs a new quadtree bitmap with height and width equal to the specified size, and 
+	 * every pixel initialized to the given colour. The specified size must be a power of 2, 
+	 * and must be greater than zero.
+	 * 
+	 * @param size the height and width of this quadtree bitmap
+	 * @param colour the colour with which to initialize every pixel in this quadtree bitmap
+	 */
+	public QuadtreeBitmap(int size, Colour colour) {
+		this(0, 0, size, colour);
+	}
+	/**
+	 * Constructs a new quadtree bitmap with height and width equal to the specified size, and 
+	 * every pixel initialized to white. The specified size must be a power of 2, and must be 
+	 * greater than zero.
+	 * 
+	 * @param size the height and width of this quadtree bitmap
+	 */
+	public QuadtreeBitmap(int size) {
+		this(0, 0, size, Colour.WHITE);
+	}
+
+	// specifying location only supported internally
+	private QuadtreeBitmap(int x, int y, int size, Colour colour) {
+		// only supporting power-of-2 dimensions
+		if (!powerOfTwo(size)) {
+			throw new IllegalArgumentException("Size not power of 2.");
+		}
+		this.x = x;
+		this.y = y;
+		this.size = size;
+		this.leaf = true;
+		this.colour = colour;
+		recount();
+		this.northWest = null;
+		this.northEast = null;
+		this.southWest = null;
+		this.southEast = null;
+		QuadtreeMetrics.allocated(1);
+	}
+	
+	// combining quads to form tree only supported internally, assumes well-positioned
+	private QuadtreeBitmap(int x, int y, int size, List<QuadtreeBitmap> quads) {
+		this(x, y, size, quads.get(0), quads.get(1), quads.get(2), quads.get(3));
+	}
+
+	// as above, without needing a list of the quads
+	private QuadtreeBitmap(int x, int y, int size, QuadtreeBitmap northWest, 
+			QuadtreeBitmap northEast, QuadtreeBitmap southWest, QuadtreeBitmap southEast) {
+		this(x, y, size, Colour.WHITE);
+		this.northWest = northWest;
+		this.northEast = northEast;
+		this.southWest = southWest;
+		this.southEast = southEast;
+		this.leaf = false;
+		recount();
+	}
+
+	// for any basic task which needs to be repeated all four quadrants
+	private List<QuadtreeBitmap> quadrants() {
+		return Arrays.asList(northWest, northEast, southWest, southEast);
+	}
+
+	// number of pixels covered by this node
+	private long area() {
+		return (long) size * size;
+	}
+
+	// recomputes the black pixel count and the hash of this node from its colour or from 
+	// its children
+	private void recount() {
+		if (leaf) {
+			blackCount = colour.equals(Colour.BLACK) ? area() : 0;
+		} else {
+			blackCount = northWest.blackCount + northEast.blackCount 
+					+ southWest.blackCount + southEast.blackCount;
+		}
+		if (blackCount == 0 || blackCount == area()) {
+			// a uniform region hashes as a leaf, even before it is collapsed into one
+			hash = mixBits(((long) size << 1 | (blackCount == 0 ? 0 : 1)) + 0x632BE59BD9B4E019L);
+		} else {
+			hash = mixBits(mixBits(mixBits(mixBits(northWest.hash) + northEast.hash) 
+					+ southWest.hash) + southEast.hash);
+		}
+	}
+
+	// the finalizer of MurmurHash3, spreading every input bit over the whole result
+	private static long mixBits(long h) {
+		h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+		h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+	}
+
+	// retrieves the quadrant within which the specified location lies
+	private QuadtreeBitmap quadrantOf(int x, int y) {
+		if (leaf || !containsPoint(x, y)) {
+			return null;
+		}
+		int half = size/2;
+		if (y < this.y + half) {
+			return x < this.x + half ? northWest : northEast;
+		} else {
+			return x < this.x + half ? southWest : southEast;
+		}
+	}
+
+	// turns this node back into a leaf if every pixel beneath it has the same colour
+	private void collapse() {
+		recount();
+		if (leaf) {
+			return;
+		}
+		if (blackCount == 0 || blackCount == area()) {
+			makeLeaf(blackCount == 0 ? Colour.WHITE : Colour.BLACK);
+		}
+	}
+
+	// replaces whatever this node holds by a single leaf of the given colour
+	private void makeLeaf(Colour colour) {
+		if (!leaf) {
+			QuadtreeMetrics.merged(4);
+		}
+		this.colour = colour;
+		leaf = true;
+		northWest = null;
+		northEast = null;
+		southWest = null;
+		southEast = null;
+		recount();
+	}
+	
+	// sets colour of quadbit map to specified colour
+	public void setColour(Colour  colour){
+		this.colour = colour;
+		if (leaf) {
+			recount();
+		}
+	}
+	
+	/**
+	 * Returns true of this QuadtreeBitmap contains the location specified by the input 
+	 * coordinates.
+	 *
+	 * @param x how far right of the origin the query location is
+	 * @param y how far below the origin the query location is
+	 * @return true if the given coordinates lie within this QuadtreeBitmap, false otherwise
+	 */
+	public boolean containsPoint(int x, int y) {
+		return this.x <= x 
+			&& this.y <= y
+			&& x < this.x + this.size 
+			&& y < this.y + this.size;
+	}
+
+	/**
+	 * Returns the height and width of this quadtree bitmap.
+	 *
+	 * @return the size of this quadtree bitmap.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the colour of the pixel at the specified location.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @return the colour of the pixel at the given location
+	 */
+	public Colour getPixel(int x, int y) {
+		if (!containsPoint(x, y)) {
+			throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") outside bitmap.");
+		}
+		QuadtreeBitmap node = this;
+		while (!node.leaf) {
+			node = node.quadrantOf(x, y);
+		}
+		return node.colour;
+	}
+
+	/**
+	 * Returns the shape of this quadtree: its numbers of nodes and leaves at each depth, 
+	 * its depth and an estimate of the memory it retains. Every node is visited, so this 
+	 * costs time linear in the number of nodes.
+	 *
+	 * @return the statistics of this quadtree
+	 */
+	public QuadtreeStats stats() {
+		int levels = Integer.numberOfTrailingZeros(size) + 1;
+		long[] nodes = new long[levels];
+		long[] leaves = new long[levels];
+		collectStats(0, nodes, leaves);
+		return new QuadtreeStats(nodes, leaves);
+	}
+
+	private void collectStats(int depth, long[] nodes, long[] leaves) {
+		nodes[depth]++;
+		if (leaf) {
+			leaves[depth]++;
+			return;
+		}
+		northWest.collectStats(depth + 1, nodes, leaves);
+		northEast.collectStats(depth + 1, nodes, leaves);
+		southWest.collectStats(depth + 1, nodes, leaves);
+		southEast.collectStats(depth + 1, nodes, leaves);
+	}
+
+	// a uniform region of a larger bitmap, for engines which keep regions separately
+	static QuadtreeBitmap region(int x, int y, int size, Colour colour) {
+		return new QuadtreeBitmap(x, y, size, colour);
+	}
+
+	// combines four adjacent regions into the simplified node covering all of them
+	static QuadtreeBitmap join(QuadtreeBitmap northWest, QuadtreeBitmap northEast, 
+			QuadtreeBitmap southWest, QuadtreeBitmap southEast) {
+		QuadtreeBitmap node = new QuadtreeBitmap(northWest.x, northWest.y, 2 * northWest.size,
+				northWest, northEast, southWest, southEast);
+		node.collapse();
+		return node;
+	}
+
+	// the north-west (0), north-east (1), south-west (2) or south-east (3) quadrant of this 
+	// internal node, for engines which convert from this tree
+	QuadtreeBitmap quadrant(int quad) {
+		return quad == 0 ? northWest : quad == 1 ? northEast : quad == 2 ? southWest : southEast;
+	}
+
+	// deep copy sharing nothing with this bitmap
+	QuadtreeBitmap copy() {
+		return copy(false);
+	}
+	
+	/////////////////////////////////////////////////////////////////////////
+	// Assignment methods start here
+	/////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the colour of every pixel in the north-west quadrant of this quadtree bitmap to 
+	 * black.
+	 */
+	
+	
+	// single slice slices the quadtree bitmap into 4 new quadrants only once - is used in the blacken method for simplicity
+	
+	public void singleSlice(QuadtreeBitmap bitMap){
+		if (bitMap.leaf == true) {
+			if (bitMap.size > 1) {
+				bitMap.leaf = false;
+				
+				bitMap.northWest = new QuadtreeBitmap(bitMap.x, bitMap.y, bitMap.getSize()/2, bitMap.colour);
+				bitMap.northEast = new QuadtreeBitmap(bitMap.x + bitMap.getSize()/2, bitMap.y, bitMap.getSize()/2, bitMap.colour);
+				bitMap.southWest = new QuadtreeBitmap(bitMap.x, bitMap.y + bitMap.getSize()/2, bitMap.getSize()/2, bitMap.colour);
+				bitMap.southEast = new QuadtreeBitmap(bitMap.x + bitMap.getSize()/2, bitMap.y + bitMap.getSize()/2, bitMap.getSize()/2, bitMap.colour);
+			}
+		}
+	}
+	
+	// continuesly slices the bitmap into 4 new quadrants every recursion until every pixel is a quadtreebitmap
+	
+	public void slice() {
+		sliceH(this);
+	}
+	
+	// helper method for slice 
+	
+	public void sliceH(QuadtreeBitmap bitMap) {
+		if (bitMap.leaf == true) {
+			if (bitMap.size > 1) {
+				bitMap.leaf = false;
+				
+				bitMap.northWest = new QuadtreeBitmap(bitMap.x, bitMap.y, bitMap.getSize()/2, bitMap.colour);
+				bitMap.northEast = new QuadtreeBitmap(bitMap.x + bitMap.getSize()/2, bitMap.y, bitMap.getSize()/2, bitMap.colour);
+				bitMap.southWest = new QuadtreeBitmap(bitMap.x, bitMap.y + bitMap.getSize()/2, bitMap.getSize()/2, bitMap.colour);
+				bitMap.southEast = new QuadtreeBitmap(bitMap.x + bitMap.getSize()/2, bitMap.y + bitMap.getSize()/2, bitMap.getSize()/2, bitMap.colour);
+				
+				sliceH(bitMap.northWest);
+				sliceH(bitMap.northEast);
+				sliceH(bitMap.southEast);
+				sliceH(bitMap.southWest);
+			} else {
+				bitMap.leaf = true;
+				return;
+			}
+		} else {
+			sliceH(bitMap.northWest);
+			sliceH(bitMap.northEast);
+			sliceH(bitMap.southEast);
+			sliceH(bitMap.southWest);
+		}
+	}
+	
+	
+	public void blackenNorthWestQuadrant(){
+		fillRect(x, y, size/2, size/2, Colour.BLACK);
+	}
+
+	/**
+	 * Sets the colour of every pixel within the given rectangle to the given colour. Parts 
+	 * of the rectangle outside the bitmap are ignored. Nodes entirely inside the rectangle 
+	 * are replaced by a single leaf and only nodes cut by its edges are split, so the cost 
+	 * grows with the rectangle's perimeter rather than its area.
+	 *
+	 * @param x the distance right of the origin of the rectangle's left edge
+	 * @param y the distance below the origin of the rectangle's top edge
+	 * @param w the width of the rectangle
+	 * @param h the height of the rectangle
+	 * @param colour the colour to give every pixel in the rectangle
+	 */
+	public void fillRect(int x, int y, int w, int h, Colour colour) {
+		if (w < 0 || h < 0) {
+			throw new IllegalArgumentException("Negative rectangle size.");
+		}
+		fillRectH(x, y, (long) x + w, (long) y + h, colour);
+	}
+
+	private void fillRectH(long left, long top, long right, long bottom, Colour colour) {
+		long overlap = overlap(left, top, right, bottom);
+		if (overlap == 0) {
+			return;
+		} else if (overlap == area()) {
+			makeLeaf(colour);
+			return;
+		} else if (leaf) {
+			if (this.colour.equals(colour)) {
+				return;
+			}
+			singleSlice(this);
+		}
+		northWest.fillRectH(left, top, right, bottom, colour);
+		northEast.fillRectH(left, top, right, bottom, colour);
+		southWest.fillRectH(left, top, right, bottom, colour);
+		southEast.fillRectH(left, top, right, bottom, colour);
+		collapse();
+	}
+
+	/**
+	 * Inverts the colours of every pixel within the given rectangle. Parts of the rectangle 
+	 * outside the bitmap are ignored. Only nodes cut by the rectangle's edges are split.
+	 *
+	 * @param x the distance right of the origin of the rectangle's left edge
+	 * @param y the distance below the origin of the rectangle's top edge
+	 * @param w the width of the rectangle
+	 * @param h the height of the rectangle
+	 */
+	public void invertRect(int x, int y, int w, int h) {
+		if (w < 0 || h < 0) {
+			throw new IllegalArgumentException("Negative rectangle size.");
+		}
+		invertRectH(x, y, (long) x + w, (long) y + h);
+	}
+
+	private void invertRectH(long left, long top, long right, long bottom) {
+		long overlap = overlap(left, top, right, bottom);
+		if (overlap == 0) {
+			return;
+		} else if (overlap == area()) {
+			invertColours(this);
+			return;
+		} else if (leaf) {
+			singleSlice(this);
+		}
+		northWest.invertRectH(left, top, right, bottom);
+		northEast.invertRectH(left, top, right, bottom);
+		southWest.invertRectH(left, top, right, bottom);
+		southEast.invertRectH(left, top, right, bottom);
+		collapse();
+	}
+	
+	// reduces bitmap until it has only the necessay quadtreebitmaps to represent the space
+	
+	public void simplifyBitmap(QuadtreeBitmap bitmap){
+		if(bitmap.leaf == false){
+		List<QuadtreeBitmap> quads = bitmap.quadrants();
+		simplifyBitmap(quads.get(0));
+		simplifyBitmap(quads.get(1));
+		simplifyBitmap(quads.get(2));
+		simplifyBitmap(quads.get(3));
+		bitmap.recount();
+		if(quads.get(0).colour.equals(quads.get(1).colour) && quads.get(1).colour.equals(quads.get(2).colour) && quads.get(2).colour.equals(quads.get(3).colour)){
+			if(quads.get(0).leaf && quads.get(1).leaf && quads.get(2).leaf && quads.get(3).leaf){
+				bitmap.colour = quads.get(0).colour;
+				bitmap.leaf = true;
+				QuadtreeMetrics.merged(4);
+				quads.set(0,null);
+				quads.set(1,null);
+				quads.set(2,null);
+				quads.set(3,null);
+				return;	
+			}
+			return;
+		} 
+		return;
+	} else {
+		return;
+		}
+	}
+
+
+	/**
+	 * Counts the number of pixels of the given colour in the bitmap represented by this 
+	 * quadtree. Runs in constant time, as every node keeps a count of the black pixels 
+	 * within its region.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 */
+	public long countPixels(Colour colour) {
+		// every node carries its own black count, so the root answers directly
+		if (colour.equals(Colour.BLACK)) {
+			return blackCount;
+		}
+		return area() - blackCount;
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour within the given rectangle of the 
+	 * bitmap represented by this quadtree. Parts of the rectangle outside the bitmap are 
+	 * ignored. Nodes entirely inside the rectangle contribute their count whole and nodes 
+	 * outside it nothing, so only nodes along the rectangle's edges are visited.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @param x the distance right of the origin of the rectangle's left edge
+	 * @param y the distance below the origin of the rectangle's top edge
+	 * @param w the width of the rectangle
+	 * @param h the height of the rectangle
+	 * @return the number of pixels of the given colour within the rectangle
+	 */
+	public long countPixels(Colour colour, int x, int y, int w, int h) {
+		if (w < 0 || h < 0) {
+			throw new IllegalArgumentException("Negative rectangle size.");
+		}
+		long black = countBlackIn(x, y, (long) x + w, (long) y + h);
+		if (colour.equals(Colour.BLACK)) {
+			return black;
+		}
+		return overlap(x, y, (long) x + w, (long) y + h) - black;
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour within each of the given rectangles, 
+	 * as {@link #countPixels(Colour, int, int, int, int)} would, in a single traversal of 
+	 * the quadtree shared by all the rectangles.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @param regions the rectangles to count within
+	 * @return the number of pixels of the given colour within each rectangle, in order
+	 */
+	public long[] countPixels(Colour colour, List<Rectangle> regions) {
+		Rectangle[] rects = regions.toArray(new Rectangle[0]);
+		int[] active = new int[rects.length];
+		for (int i = 0; i < rects.length; i++) {
+			if (rects[i].width < 0 || rects[i].height < 0) {
+				throw new IllegalArgumentException("Negative rectangle size.");
+			}
+			active[i] = i;
+		}
+		long[] counts = new long[rects.length];
+		countBlackIn(rects, active, active.length, counts);
+		if (colour.equals(Colour.WHITE)) {
+			for (int i = 0; i < rects.length; i++) {
+				Rectangle r = rects[i];
+				counts[i] = overlap(r.x, r.y, (long) r.x + r.width, (long) r.y + r.height) - counts[i];
+			}
+		}
+		return counts;
+	}
+
+	// number of pixels of this node inside the rectangle with the given corners, exclusive 
+	// at the bottom right
+	private long overlap(long left, long top, long right, long bottom) {
+		long w = Math.min(right, x + size) - Math.max(left, x);
+		long h = Math.min(bottom, y + size) - Math.max(top, y);
+		return w > 0 && h > 0 ? w * h : 0;
+	}
+
+	private long countBlackIn(long left, long top, long right, long bottom) {
+		long overlap = overlap(left, top, right, bottom);
+		if (overlap == 0 || blackCount == 0) {
+			return 0;
+		} else if (overlap == area()) {
+			// node lies entirely inside the rectangle
+			return blackCount;
+		} else if (blackCount == area()) {
+			return overlap;
+		}
+		return northWest.countBlackIn(left, top, right, bottom)
+				+ northEast.countBlackIn(left, top, right, bottom)
+				+ southWest.countBlackIn(left, top, right, bottom)
+				+ southEast.countBlackIn(left, top, right, bottom);
+	}
+
+	// adds the black pixels of this node to the count of every active rectangle, passing 
+	// down only the rectangles which cut through the node
+	private void countBlackIn(Rectangle[] rects, int[] active, int activeCount, long[] counts) {
+		int[] partial = null;
+		int partialCount = 0;
+		for (int i = 0; i < activeCount; i++) {
+			Rectangle r = rects[active[i]];
+			long overlap = overlap(r.x, r.y, (long) r.x + r.width, (long) r.y + r.height);
+			if (overlap == 0) {
+				continue;
+			} else if (overlap == area() || blackCount == 0) {
+				counts[active[i]] += overlap == area() ? blackCount : 0;
+			} else if (blackCount == area()) {
+				counts[active[i]] += overlap;
+			} else {
+				if (partial == null) {
+					partial = new int[activeCount - i];
+				}
+				partial[partialCount++] = active[i];
+			}
+		}
+		if (partialCount > 0) {
+			northWest.countBlackIn(rects, partial, partialCount, counts);
+			northEast.countBlackIn(rects, partial, partialCount, counts);
+			southWest.countBlackIn(rects, partial, partialCount, counts);
+			southEast.countBlackIn(rects, partial, partialCount, counts);
+		}
+	}
+
+	/**
+	 * Inverts the colours in the bitmap represented by this quadtree, i.e. turns every black 
+	 * pixel white and every white pixel black.
+	 */	 
+	public void invertColours() {
+		
+		if(this.leaf){
+			if(this.colour.equals(colour.WHITE)){
+				this.colour = colour.BLACK;
+				recount();
+				return;
+			}
+			if(this.colour.equals(colour.BLACK)){
+				this.colour = colour.WHITE;
+				recount();
+				return;
+			}
+		}
+		invertColours(this.northWest);
+		invertColours(this.northEast);
+		invertColours(this.southWest);
+		invertColours(this.southEast);
+		recount();
+		return;
+			
+	}
+	
+	// helper function to invert colours
+	
+	public void invertColours(QuadtreeBitmap current){
+		if(current.leaf){
+			if(current.colour.equals(colour.WHITE)){
+				current.colour = colour.BLACK;
+				current.recount();
+				return;
+			}
+			if(current.colour.equals(colour.BLACK)){
+				current.colour = colour.WHITE;
+				current.recount();
+				return;
+			}
+		}
+		
+		invertColours(current.northWest);
+		invertColours(current.northEast);
+		invertColours(current.southWest);
+		invertColours(current.southEast);
+		current.recount();
+		return;
+	}
+	
+	
+
+	/**
+	 * Sets the colour of a single pixel at the specified location to the given colour. Only 
+	 * the nodes on the path from the root to the pixel are split and merged again, so a 
+	 * write costs time and allocation logarithmic in the size of the bitmap. Locations 
+	 * outside the bitmap are ignored.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @param colour the colour to set the pixel at the given location to
+	 */
+	
+	public void setPixel(int x, int y, Colour colour) {
+		QuadtreeOperationEvent event = QuadtreeMetrics.begin("setPixel");
+		if (containsPoint(x, y)) {
+			setPixelOnPath(x, y, colour);
+		}
+		QuadtreeMetrics.end(event, size);
+	}
+
+	// descends towards the pixel, slicing leaves on the way, and collapses on the way back up
+	private void setPixelOnPath(int x, int y, Colour colour) {
+		if (leaf) {
+			if (this.colour.equals(colour)) {
+				// nothing changes, so nothing needs splitting
+				return;
+			}
+			if (size == 1) {
+				this.colour = colour;
+				recount();
+				return;
+			}
+			singleSlice(this);
+		}
+		quadrantOf(x, y).setPixelOnPath(x, y, colour);
+		collapse();
+	}
+	
+	/**
+	 * Sets the pixel at the specified location to the given colour by slicing the whole 
+	 * bitmap down to single pixels and simplifying it again, at a cost in the order of its 
+	 * area. Exists only as the baseline of the SetPixelBenchmark regression benchmark and 
+	 * is not meant to be called otherwise.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @param colour the colour to give the pixel at the given location
+	 * @deprecated use {@link #setPixel(int, int, Colour)}, which only splits the nodes on 
+	 *             the path to the pixel
+	 */
+	@Deprecated
+	public void setPixelBySlicing(int x, int y, Colour colour) {
+		// slices the bitmap into quadrants recursively until every pixel is a leaf
+		sliceH(this);
+		setPixelH(x, y, colour, this);
+		simplifyBitmap(this);
+	}
+
+	/**
+	 * Sets the colours of many pixels at once: the pixel at ({@code xs[i]}, {@code ys[i]}) 
+	 * is given {@code colours[i]}. If a location appears more than once, the last update to 
+	 * it wins, and locations outside the bitmap are ignored. The updates are sorted into 
+	 * Z-order (Morton order) and applied in a single descent of the tree, which splits 
+	 * each node at most once and collapses it once on the way back up, so a batch of k 
+	 * updates costs in the order of k times the depth of the tree.
+	 *
+	 * @param xs the distances right of the origin of the locations to update
+	 * @param ys the distances below the origin of the locations to update
+	 * @param colours the colours to set the pixels at those locations to
+	 */
+	public void setPixels(int[] xs, int[] ys, Colour[] colours) {
+		if (xs.length != ys.length || xs.length != colours.length) {
+			throw new IllegalArgumentException("Update arrays differ in length.");
+		}
+		int[] order = mortonOrder(xs, ys);
+		applyPixels(order, 0, order.length, xs, ys, colours);
+	}
+
+	/**
+	 * Sets every pixel at the given packed locations to the given colour, as 
+	 * {@link #setPixels(int[], int[], Colour[])} would. Each location is packed into a long 
+	 * by {@link #packPixel}.
+	 *
+	 * @param pixels the packed locations of the pixels to update
+	 * @param colour the colour to set the pixels to
+	 */
+	public void setPixels(long[] pixels, Colour colour) {
+		int[] xs = new int[pixels.length];
+		int[] ys = new int[pixels.length];
+		for (int i = 0; i < pixels.length; i++) {
+			xs[i] = pixelX(pixels[i]);
+			ys[i] = pixelY(pixels[i]);
+		}
+		Colour[] colours = new Colour[pixels.length];
+		Arrays.fill(colours, colour);
+		setPixels(xs, ys, colours);
+	}
+
+	/**
+	 * Packs a pixel location into a single long, with y in the upper and x in the lower 
+	 * 32 bits.
+	 *
+	 * @param x the distance right of the origin of the location
+	 * @param y the distance below the origin of the location
+	 * @return the packed location
+	 */
+	public static long packPixel(int x, int y) {
+		return ((long) y << 32) | (x & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the x coordinate of a location packed by {@link #packPixel}.
+	 *
+	 * @param pixel a packed location
+	 * @return the distance right of the origin of the location
+	 */
+	public static int pixelX(long pixel) {
+		return (int) pixel;
+	}
+
+	/**
+	 * Returns the y coordinate of a location packed by {@link #packPixel}.
+	 *
+	 * @param pixel a packed location
+	 * @return the distance below the origin of the location
+	 */
+	public static int pixelY(long pixel) {
+		return (int) (pixel >>> 32);
+	}
+
+	// indices of the in-bounds updates, sorted by Morton key and by position in the batch 
+	// among equal keys, so that later updates to a pixel are applied last
+	private int[] mortonOrder(int[] xs, int[] ys) {
+		int count = 0;
+		for (int i = 0; i < xs.length; i++) {
+			if (containsPoint(xs[i], ys[i])) {
+				count++;
+			}
+		}
+		int keyBits = 2 * Integer.numberOfTrailingZeros(size);
+		int indexBits = 32 - Integer.numberOfLeadingZeros(xs.length);
+		int[] order = new int[count];
+		if (keyBits + indexBits < 64) {
+			// key and index fit in one long, so a primitive sort keeps it stable
+			long[] keys = new long[count];
+			for (int i = 0, j = 0; i < xs.length; i++) {
+				if (containsPoint(xs[i], ys[i])) {
+					keys[j++] = (mortonKey(xs[i], ys[i]) << indexBits) | i;
+				}
+			}
+			Arrays.sort(keys);
+			long indexMask = (1L << indexBits) - 1;
+			for (int j = 0; j < count; j++) {
+				order[j] = (int) (keys[j] & indexMask);
+			}
+		} else {
+			Integer[] boxed = new Integer[count];
+			for (int i = 0, j = 0; i < xs.length; i++) {
+				if (containsPoint(xs[i], ys[i])) {
+					boxed[j++] = i;
+				}
+			}
+			// object sorts are stable
+			Arrays.sort(boxed, (i, j) -> Long.compareUnsigned(
+					mortonKey(xs[i], ys[i]), mortonKey(xs[j], ys[j])));
+			for (int j = 0; j < count; j++) {
+				order[j] = boxed[j];
+			}
+		}
+		return order;
+	}
+
+	// interleaves the bits of a location relative to this node, y above x, so that the 
+	// quadrants north-west, north-east, south-west, south-east follow each other
+	private long mortonKey(int x, int y) {
+		return spreadBits(x - this.x) | (spreadBits(y - this.y) << 1);
+	}
+
+	private static long spreadBits(int v) {
+		long bits = v & 0xFFFFFFFFL;
+		bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+		bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+		bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		bits = (bits | (bits << 2)) & 0x3333333333333333L;
+		bits = (bits | (bits << 1)) & 0x5555555555555555L;
+		return bits;
+	}
+
+	// applies the updates order[from..to), all inside this node, splitting leaves only 
+	// where an update changes them
+	private void applyPixels(int[] order, int from, int to, int[] xs, int[] ys, Colour[] colours) {
+		if (from == to) {
+			return;
+		}
+		if (size == 1) {
+			this.colour = colours[order[to - 1]];
+			recount();
+			return;
+		}
+		if (leaf) {
+			boolean changes = false;
+			for (int i = from; i < to && !changes; i++) {
+				changes = !colours[order[i]].equals(colour);
+			}
+			if (!changes) {
+				return;
+			}
+			singleSlice(this);
+		}
+		// updates are grouped by quadrant in Morton order, so each quadrant gets a sub-range
+		int xMid = x + size/2;
+		int yMid = y + size/2;
+		int end = from;
+		QuadtreeBitmap[] quads = {northWest, northEast, southWest, southEast};
+		for (int quad = 0; quad < 4; quad++) {
+			int start = end;
+			while (end < to && (xs[order[end]] < xMid ? 0 : 1) + (ys[order[end]] < yMid ? 0 : 2) == quad) {
+				end++;
+			}
+			quads[quad].applyPixels(order, start, end, xs, ys, colours);
+		}
+		collapse();
+	}
+
+	// calls every bitmap until current bitmap's co-ordinates equal the specified co-ordinates in the parameters then changes that pixels colour
+	
+	public void setPixelH(int x, int y, Colour colour, QuadtreeBitmap bitMap){
+		if(bitMap.leaf == true){
+			if(bitMap.x == x && bitMap.y == y){
+				bitMap.colour = colour;
+				bitMap.recount();
+			} else {
+				return;
+				}
+		} else {
+			setPixelH(x, y, colour, bitMap.northWest);
+			setPixelH(x, y, colour, bitMap.northEast);
+			setPixelH(x, y, colour, bitMap.southEast);
+			setPixelH(x, y, colour, bitMap.southWest);
+			bitMap.recount();
+			}
+	}
+
+	/**
+	 * Constructs and returns the overlay of the two given quadtree bitmaps. The overlay of 
+	 * two bitmaps is the bitmap which has a black pixel at every location at which either 
+	 * input bitmap has a black pixel, and a white pixel at every location at which both 
+	 * input bitmaps have a white pixel. Can be thought of as the bitwise OR of two bitmaps.
+	 *
+	 * Only supports bitmaps that are the same size. Neither input is modified, and the cost 
+	 * is bounded by the number of nodes in the two inputs.
+	 *
+	 * @param bmp1 the first of two quadtree bitmaps to compute the overlay of
+	 * @param bmp2 the second of two quadtree bitmaps to compute the overlay of
+	 * @return the newly constructed overlay of the two given quadtree bitmaps
+	 */
+	
+	public static QuadtreeBitmap computeOverlay(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2) {
+		QuadtreeOperationEvent event = QuadtreeMetrics.begin("computeOverlay");
+		QuadtreeBitmap overlay = combine(bmp1, bmp2, Operation.OR);
+		QuadtreeMetrics.end(event, bmp1.size);
+		return overlay;
+	}
+
+	/**
+	 * Constructs and returns the overlay of all the given quadtree bitmaps, black wherever 
+	 * any of them is black. All the inputs are descended together, and a region is settled 
+	 * as soon as one input is black throughout it or every input is white there; where only 
+	 * one input is still mixed, that input is copied. No intermediate bitmaps are built, so 
+	 * the cost is bounded by the total number of nodes of the inputs.
+	 *
+	 * Only supports bitmaps that are all the same size. No input is modified.
+	 *
+	 * @param bitmaps the quadtree bitmaps to compute the overlay of, at least one
+	 * @return the newly constructed overlay, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeOverlay(List<QuadtreeBitmap> bitmaps) {
+		QuadtreeBitmap[] roots = overlayInputs(bitmaps);
+		if (roots == null) {
+			return null;
+		}
+		return overlayAll(roots[0].x, roots[0].y, roots[0].size, roots);
+	}
+
+	// the bitmaps to overlay, or null if their sizes differ
+	private static QuadtreeBitmap[] overlayInputs(List<QuadtreeBitmap> bitmaps) {
+		if (bitmaps.isEmpty()) {
+			throw new IllegalArgumentException("No bitmaps to overlay.");
+		}
+		QuadtreeBitmap[] roots = bitmaps.toArray(new QuadtreeBitmap[0]);
+		for (QuadtreeBitmap bmp : roots) {
+			if (bmp.getSize() != roots[0].getSize()) {
+				return null;
+			}
+		}
+		return roots;
+	}
+
+	// overlays nodes all covering the given region
+	private static QuadtreeBitmap overlayAll(int x, int y, int size, QuadtreeBitmap[] nodes) {
+		QuadtreeBitmap[] mixed = mixedNodes(nodes);
+		if (mixed == null) {
+			return new QuadtreeBitmap(x, y, size, Colour.BLACK);
+		} else if (mixed.length == 0) {
+			return new QuadtreeBitmap(x, y, size, Colour.WHITE);
+		} else if (mixed.length == 1) {
+			return mixed[0].copy();
+		}
+		int half = size/2;
+		QuadtreeBitmap result = new QuadtreeBitmap(x, y, size,
+				overlayAll(x, y, half, quadrantsOf(mixed, 0)),
+				overlayAll(x + half, y, half, quadrantsOf(mixed, 1)),
+				overlayAll(x, y + half, half, quadrantsOf(mixed, 2)),
+				overlayAll(x + half, y + half, half, quadrantsOf(mixed, 3)));
+		result.collapse();
+		return result;
+	}
+
+	// the nodes among the given ones which are neither all black nor all white, or null as 
+	// soon as one is all black
+	private static QuadtreeBitmap[] mixedNodes(QuadtreeBitmap[] nodes) {
+		int count = 0;
+		for (QuadtreeBitmap node : nodes) {
+			if (node.blackCount == node.area()) {
+				return null;
+			} else if (node.blackCount != 0) {
+				count++;
+			}
+		}
+		if (count == nodes.length) {
+			return nodes;
+		}
+		QuadtreeBitmap[] mixed = new QuadtreeBitmap[count];
+		count = 0;
+		for (QuadtreeBitmap node : nodes) {
+			if (node.blackCount != 0) {
+				mixed[count++] = node;
+			}
+		}
+		return mixed;
+	}
+
+	// the north-west (0), north-east (1), south-west (2) or south-east (3) quadrant of each 
+	// of the given internal nodes
+	private static QuadtreeBitmap[] quadrantsOf(QuadtreeBitmap[] nodes, int quad) {
+		QuadtreeBitmap[] quads = new QuadtreeBitmap[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			QuadtreeBitmap node = nodes[i];
+			quads[i] = quad == 0 ? node.northWest : quad == 1 ? node.northEast 
+					: quad == 2 ? node.southWest : node.southEast;
+		}
+		return quads;
+	}
+
+	/**
+	 * Returns the regions in which the two given quadtree bitmaps differ, as squares which 
+	 * together cover exactly the differing pixels. Every node carries a hash of its pixels, 
+	 * and subtrees with equal hashes are taken to be equal without being descended into, so 
+	 * comparing two nearly identical bitmaps costs about the size of their difference times 
+	 * the depth of the tree. With 64-bit hashes a collision is vanishingly unlikely. For the 
+	 * difference as a bitmap, see {@link #computeXor(QuadtreeBitmap, QuadtreeBitmap)}.
+	 *
+	 * Only supports bitmaps that are the same size. Neither input is modified.
+	 *
+	 * @param bmp1 the first of two quadtree bitmaps to compare
+	 * @param bmp2 the second of two quadtree bitmaps to compare
+	 * @return the squares in which the bitmaps differ, or null if the sizes differ
+	 */
+	public static List<Rectangle> diff(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2) {
+		if (bmp1.getSize() != bmp2.getSize()) {
+			return null;
+		}
+		List<Rectangle> regions = new ArrayList<>();
+		diffH(bmp1, bmp2, regions);
+		return regions;
+	}
+
+	private static void diffH(QuadtreeBitmap quad1, QuadtreeBitmap quad2, List<Rectangle> regions) {
+		if (quad1.hash == quad2.hash && quad1.blackCount == quad2.blackCount) {
+			return;
+		}
+		Colour uniform1 = quad1.uniformColour();
+		Colour uniform2 = quad2.uniformColour();
+		if (uniform1 != null) {
+			quad2.collectRegionsNot(uniform1, regions);
+		} else if (uniform2 != null) {
+			quad1.collectRegionsNot(uniform2, regions);
+		} else {
+			diffH(quad1.northWest, quad2.northWest, regions);
+			diffH(quad1.northEast, quad2.northEast, regions);
+			diffH(quad1.southWest, quad2.southWest, regions);
+			diffH(quad1.southEast, quad2.southEast, regions);
+		}
+	}
+
+	// adds the uniform regions of this node which are not of the given colour
+	private void collectRegionsNot(Colour colour, List<Rectangle> regions) {
+		Colour uniform = uniformColour();
+		if (uniform != null) {
+			if (!uniform.equals(colour)) {
+				regions.add(new Rectangle(x, y, size, size));
+			}
+			return;
+		}
+		northWest.collectRegionsNot(colour, regions);
+		northEast.collectRegionsNot(colour, regions);
+		southWest.collectRegionsNot(colour, regions);
+		southEast.collectRegionsNot(colour, regions);
+	}
+
+	/**
+	 * Returns true if the given object is a quadtree bitmap of the same size with the same 
+	 * pixels, however either tree is subdivided. Bitmaps which differ are almost always told 
+	 * apart in constant time by the hash and black count their roots carry. When those 
+	 * agree, the trees are walked to confirm it, skipping subtrees which are the same object 
+	 * or both of one colour, so the result is exact even if hashes collide.
+	 *
+	 * @param other the object to compare this bitmap with
+	 * @return true if the other object is a bitmap with the same pixels
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		} else if (!(other instanceof QuadtreeBitmap)) {
+			return false;
+		}
+		QuadtreeBitmap bmp = (QuadtreeBitmap) other;
+		if (x != bmp.x || y != bmp.y || size != bmp.size 
+				|| hash != bmp.hash || blackCount != bmp.blackCount) {
+			return false;
+		}
+		return samePixels(this, bmp);
+	}
+
+	private static boolean samePixels(QuadtreeBitmap quad1, QuadtreeBitmap quad2) {
+		if (quad1 == quad2) {
+			return true;
+		} else if (quad1.hash != quad2.hash || quad1.blackCount != quad2.blackCount) {
+			return false;
+		} else if (quad1.uniformColour() != null) {
+			// with equal counts, both are of the same single colour
+			return true;
+		}
+		return samePixels(quad1.northWest, quad2.northWest) 
+				&& samePixels(quad1.northEast, quad2.northEast)
+				&& samePixels(quad1.southWest, quad2.southWest) 
+				&& samePixels(quad1.southEast, quad2.southEast);
+	}
+
+	/**
+	 * Returns a hash code of the pixels of this bitmap, in constant time from the hash kept 
+	 * by its root. As the bitmap is mutable, it should not be modified while it is a key 
+	 * in a hash-based collection.
+	 *
+	 * @return a hash code of this bitmap
+	 */
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash);
+	}
+
+	/**
+	 * Constructs and returns the intersection of the two given quadtree bitmaps, i.e. the 
+	 * bitmap which is black only where both inputs are black. Can be thought of as the 
+	 * bitwise AND of two bitmaps.
+	 *
+	 * Only supports bitmaps that are the same size. Neither input is modified.
+	 *
+	 * @param bmp1 the first of two quadtree bitmaps to intersect
+	 * @param bmp2 the second of two quadtree bitmaps to intersect
+	 * @return the newly constructed intersection, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeIntersection(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2) {
+		return combine(bmp1, bmp2, Operation.AND);
+	}
+
+	/**
+	 * Constructs and returns the difference of the two given quadtree bitmaps, i.e. the 
+	 * bitmap which is black where the first input is black and the second is white. Can be 
+	 * thought of as the bitwise AND-NOT of two bitmaps, or masking out {@code bmp2}.
+	 *
+	 * Only supports bitmaps that are the same size. Neither input is modified.
+	 *
+	 * @param bmp1 the bitmap to subtract from
+	 * @param bmp2 the bitmap whose black pixels are removed from the first
+	 * @return the newly constructed difference, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeDifference(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2) {
+		return combine(bmp1, bmp2, Operation.AND_NOT);
+	}
+
+	/**
+	 * Constructs and returns the symmetric difference of the two given quadtree bitmaps, 
+	 * i.e. the bitmap which is black where exactly one of the inputs is black. Can be 
+	 * thought of as the bitwise XOR of two bitmaps.
+	 *
+	 * Only supports bitmaps that are the same size. Neither input is modified.
+	 *
+	 * @param bmp1 the first of two quadtree bitmaps to compare
+	 * @param bmp2 the second of two quadtree bitmaps to compare
+	 * @return the newly constructed symmetric difference, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeXor(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2) {
+		return combine(bmp1, bmp2, Operation.XOR);
+	}
+
+	// the pixel-wise boolean operations supported by combine, black standing for true
+	private enum Operation {
+		OR, AND, AND_NOT, XOR;
+
+		Colour apply(Colour a, Colour b) {
+			boolean p = a.equals(Colour.BLACK);
+			boolean q = b.equals(Colour.BLACK);
+			boolean result;
+			switch (this) {
+			case OR:
+				result = p || q;
+				break;
+			case AND:
+				result = p && q;
+				break;
+			case AND_NOT:
+				result = p && !q;
+				break;
+			default:
+				result = p ^ q;
+			}
+			return result ? Colour.BLACK : Colour.WHITE;
+		}
+	}
+
+	// shared entry point of the boolean operations, reads both inputs without modifying them
+	private static QuadtreeBitmap combine(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2, Operation op) {
+		if (bmp1.getSize() != bmp2.getSize()) {
+			return null;
+		}
+		return combineH(bmp1, bmp2, op);
+	}
+
+	// merges two nodes covering the same region; recursion only continues where both sides 
+	// are subdivided, so the cost is bounded by the nodes of the inputs
+	private static QuadtreeBitmap combineH(QuadtreeBitmap quad1, QuadtreeBitmap quad2, Operation op) {
+		Colour uniform1 = quad1.uniformColour();
+		Colour uniform2 = quad2.uniformColour();
+		if (uniform1 != null && uniform2 != null) {
+			return new QuadtreeBitmap(quad1.x, quad1.y, quad1.size, op.apply(uniform1, uniform2));
+		} else if (uniform1 != null) {
+			return combineWithUniform(uniform1, quad2, op, false);
+		} else if (uniform2 != null) {
+			return combineWithUniform(uniform2, quad1, op, true);
+		}
+		QuadtreeBitmap result = new QuadtreeBitmap(quad1.x, quad1.y, quad1.size,
+				combineH(quad1.northWest, quad2.northWest, op),
+				combineH(quad1.northEast, quad2.northEast, op),
+				combineH(quad1.southWest, quad2.southWest, op),
+				combineH(quad1.southEast, quad2.southEast, op));
+		result.collapse();
+		return result;
+	}
+
+	// with one side uniform the result is either a single leaf, or a (possibly inverted) copy 
+	// of the other side; which one is decided by applying op to both colours of the other side
+	private static QuadtreeBitmap combineWithUniform(Colour uniform, QuadtreeBitmap other, 
+			Operation op, boolean uniformOnRight) {
+		Colour onWhite = uniformOnRight 
+				? op.apply(Colour.WHITE, uniform) : op.apply(uniform, Colour.WHITE);
+		Colour onBlack = uniformOnRight 
+				? op.apply(Colour.BLACK, uniform) : op.apply(uniform, Colour.BLACK);
+		if (onWhite.equals(onBlack)) {
+			return new QuadtreeBitmap(other.x, other.y, other.size, onWhite);
+		}
+		return other.copy(onWhite.equals(Colour.BLACK));
+	}
+
+	// the colour of every pixel in this region if they all agree, null otherwise
+	Colour uniformColour() {
+		if (blackCount == 0) {
+			return Colour.WHITE;
+		} else if (blackCount == area()) {
+			return Colour.BLACK;
+		}
+		return null;
+	}
+
+	// deep copy of this subtree, optionally inverted, collapsing any unsimplified regions
+	private QuadtreeBitmap copy(boolean invert) {
+		Colour uniform = uniformColour();
+		if (uniform != null) {
+			Colour flipped = uniform.equals(Colour.BLACK) ? Colour.WHITE : Colour.BLACK;
+			return new QuadtreeBitmap(x, y, size, invert ? flipped : uniform);
+		}
+		return new QuadtreeBitmap(x, y, size,
+				northWest.copy(invert),
+				northEast.copy(invert),
+				southWest.copy(invert),
+				southEast.copy(invert));
+	}
+
+	/**
+	 * Returns this bitmap rotated a quarter turn clockwise, so that the pixel at (x, y) moves
+	 * to (size - 1 - y, x). The quadrants of every node are permuted rather than the pixels
+	 * moved, so the cost is proportional to the number of nodes. This bitmap is not modified.
+	 *
+	 * @return the newly constructed rotated bitmap
+	 */
+	public QuadtreeBitmap rotate90() {
+		return transformed(ROTATE_90);
+	}
+
+	/**
+	 * Returns this bitmap rotated a half turn, so that the pixel at (x, y) moves to
+	 * (size - 1 - x, size - 1 - y). This bitmap is not modified.
+	 *
+	 * @return the newly constructed rotated bitmap
+	 */
+	public QuadtreeBitmap rotate180() {
+		return transformed(ROTATE_180);
+	}
+
+	/**
+	 * Returns this bitmap mirrored left to right, so that the pixel at (x, y) moves to
+	 * (size - 1 - x, y). This bitmap is not modified.
+	 *
+	 * @return the newly constructed mirrored bitmap
+	 */
+	public QuadtreeBitmap flipHorizontal() {
+		return transformed(FLIP_HORIZONTAL);
+	}
+
+	/**
+	 * Returns this bitmap mirrored top to bottom, so that the pixel at (x, y) moves to
+	 * (x, size - 1 - y). This bitmap is not modified.
+	 *
+	 * @return the newly constructed mirrored bitmap
+	 */
+	public QuadtreeBitmap flipVertical() {
+		return transformed(FLIP_VERTICAL);
+	}
+
+	/**
+	 * Returns this bitmap mirrored along its main diagonal, so that the pixel at (x, y) moves
+	 * to (y, x). This bitmap is not modified.
+	 *
+	 * @return the newly constructed transposed bitmap
+	 */
+	public QuadtreeBitmap transpose() {
+		return transformed(TRANSPOSE);
+	}
+
+	/**
+	 * Returns this bitmap at a lower resolution, its size divided by 2 to the power of the 
+	 * given number of levels. Each pixel of the result stands for a block of pixels of this 
+	 * bitmap, and is coloured by the given policy from the block's black pixel count. The 
+	 * tree is cut off at the depth of the blocks, whose counts every node already keeps, 
+	 * so the cost is proportional to the number of nodes above that depth. This bitmap is 
+	 * not modified.
+	 *
+	 * @param levels how many times to halve the size, from 0 up to the log2 of the size
+	 * @param policy how to colour a pixel standing for a mixed block
+	 * @return the newly constructed downsampled bitmap
+	 */
+	public QuadtreeBitmap downsample(int levels, DownsamplePolicy policy) {
+		if (levels < 0 || levels > Integer.numberOfTrailingZeros(size)) {
+			throw new IllegalArgumentException("Cannot downsample by " + levels + " levels.");
+		}
+		return downsampled(levels, policy);
+	}
+
+	private QuadtreeBitmap downsampled(int levels, DownsamplePolicy policy) {
+		Colour uniform = uniformColour();
+		if (uniform == null && size == 1 << levels) {
+			uniform = policy.colourOf(blackCount, area());
+		}
+		if (uniform != null) {
+			return new QuadtreeBitmap(x >> levels, y >> levels, size >> levels, uniform);
+		}
+		// neighbouring blocks may have been given the same colour, so join collapses
+		return join(northWest.downsampled(levels, policy), northEast.downsampled(levels, policy),
+				southWest.downsampled(levels, policy), southEast.downsampled(levels, policy));
+	}
+
+	/**
+	 * Returns this bitmap at a higher resolution, its size multiplied by 2 to the power of 
+	 * the given number of levels, with each pixel becoming a block of pixels. Only the 
+	 * location and size of every node are scaled, so the cost is proportional to the number 
+	 * of nodes. This bitmap is not modified.
+	 *
+	 * @param levels how many times to double the size
+	 * @return the newly constructed upsampled bitmap
+	 */
+	public QuadtreeBitmap upsample(int levels) {
+		if (levels < 0 || Integer.numberOfTrailingZeros(size) + levels > 30) {
+			throw new IllegalArgumentException("Cannot upsample by " + levels + " levels.");
+		}
+		return upsampled(levels);
+	}
+
+	private QuadtreeBitmap upsampled(int levels) {
+		Colour uniform = uniformColour();
+		if (uniform != null) {
+			return new QuadtreeBitmap(x << levels, y << levels, size << levels, uniform);
+		}
+		return new QuadtreeBitmap(x << levels, y << levels, size << levels,
+				northWest.upsampled(levels), northEast.upsampled(levels),
+				southWest.upsampled(levels), southEast.upsampled(levels));
+	}
+
+	// where each quadrant of a node ends up under a transformation, given and indexed in
+	// the order north-west, north-east, south-west, south-east
+	private static final int[] ROTATE_90 = {1, 3, 0, 2};
+	private static final int[] ROTATE_180 = {3, 2, 1, 0};
+	private static final int[] FLIP_HORIZONTAL = {1, 0, 3, 2};
+	private static final int[] FLIP_VERTICAL = {2, 3, 0, 1};
+	private static final int[] TRANSPOSE = {0, 2, 1, 3};
+
+	private QuadtreeBitmap transformed(int[] destination) {
+		return transformedAt(x, y, destination);
+	}
+
+	// copy of this subtree placed at the given location, with the quadrants of every node
+	// sent to their destinations, collapsing any unsimplified regions
+	private QuadtreeBitmap transformedAt(int x, int y, int[] destination) {
+		Colour uniform = uniformColour();
+		if (uniform != null) {
+			return new QuadtreeBitmap(x, y, size, uniform);
+		}
+		int half = size/2;
+		QuadtreeBitmap[] sources = {northWest, northEast, southWest, southEast};
+		QuadtreeBitmap[] quads = new QuadtreeBitmap[4];
+		for (int quad = 0; quad < 4; quad++) {
+			int to = destination[quad];
+			quads[to] = sources[quad].transformedAt(x + (to % 2) * half, y + (to / 2) * half,
+					destination);
+		}
+		return new QuadtreeBitmap(x, y, size, quads[0], quads[1], quads[2], quads[3]);
+	}
+
+	/////////////////////////////////////////////////////////////////////////
+	// Parallel variants, run as fork/join tasks one quadrant per task
+	/////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Inverts the colours in the bitmap represented by this quadtree, splitting the work 
+	 * across the given pool. Gives the same result as {@link #invertColours()}.
+	 *
+	 * @param parallelism the pool and sequential threshold to run with
+	 */
+	public void invertColours(QuadtreeParallelism parallelism) {
+		parallelism.invoke(new InvertTask(this, parallelism));
+	}
+
+	/**
+	 * Reduces the given bitmap to the fewest nodes representing it, splitting the work 
+	 * across the given pool. Gives the same result as {@link #simplifyBitmap(QuadtreeBitmap)}.
+	 *
+	 * @param bitmap the bitmap to simplify
+	 * @param parallelism the pool and sequential threshold to run with
+	 */
+	public void simplifyBitmap(QuadtreeBitmap bitmap, QuadtreeParallelism parallelism) {
+		parallelism.invoke(new SimplifyTask(bitmap, parallelism));
+	}
+
+	/**
+	 * Computes the overlay of the two given bitmaps, splitting the work across the given 
+	 * pool. Gives the same result as {@link #computeOverlay(QuadtreeBitmap, QuadtreeBitmap)}.
+	 *
+	 * @param bmp1 the first of two quadtree bitmaps to compute the overlay of
+	 * @param bmp2 the second of two quadtree bitmaps to compute the overlay of
+	 * @param parallelism the pool and sequential threshold to run with
+	 * @return the newly constructed overlay, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeOverlay(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2, 
+			QuadtreeParallelism parallelism) {
+		return combine(bmp1, bmp2, Operation.OR, parallelism);
+	}
+
+	/**
+	 * Computes the intersection of the two given bitmaps, splitting the work across the 
+	 * given pool. Gives the same result as 
+	 * {@link #computeIntersection(QuadtreeBitmap, QuadtreeBitmap)}.
+	 *
+	 * @param bmp1 the first of two quadtree bitmaps to intersect
+	 * @param bmp2 the second of two quadtree bitmaps to intersect
+	 * @param parallelism the pool and sequential threshold to run with
+	 * @return the newly constructed intersection, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeIntersection(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2, 
+			QuadtreeParallelism parallelism) {
+		return combine(bmp1, bmp2, Operation.AND, parallelism);
+	}
+
+	/**
+	 * Computes the difference of the two given bitmaps, splitting the work across the given 
+	 * pool. Gives the same result as {@link #computeDifference(QuadtreeBitmap, QuadtreeBitmap)}.
+	 *
+	 * @param bmp1 the bitmap to subtract from
+	 * @param bmp2 the bitmap whose black pixels are removed from the first
+	 * @param parallelism the pool and sequential threshold to run with
+	 * @return the newly constructed difference, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeDifference(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2, 
+			QuadtreeParallelism parallelism) {
+		return combine(bmp1, bmp2, Operation.AND_NOT, parallelism);
+	}
+
+	/**
+	 * Computes the symmetric difference of the two given bitmaps, splitting the work across 
+	 * the given pool. Gives the same result as {@link #computeXor(QuadtreeBitmap, QuadtreeBitmap)}.
+	 *
+	 * @param bmp1 the first of two quadtree bitmaps to compare
+	 * @param bmp2 the second of two quadtree bitmaps to compare
+	 * @param parallelism the pool and sequential threshold to run with
+	 * @return the newly constructed symmetric difference, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeXor(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2, 
+			QuadtreeParallelism parallelism) {
+		return combine(bmp1, bmp2, Operation.XOR, parallelism);
+	}
+
+	/**
+	 * Computes the overlay of all the given bitmaps, splitting the work across the given 
+	 * pool one quadrant per task. Gives the same result as {@link #computeOverlay(List)}.
+	 *
+	 * @param bitmaps the quadtree bitmaps to compute the overlay of, at least one
+	 * @param parallelism the pool and sequential threshold to run with
+	 * @return the newly constructed overlay, or null if the sizes differ
+	 */
+	public static QuadtreeBitmap computeOverlay(List<QuadtreeBitmap> bitmaps, 
+			QuadtreeParallelism parallelism) {
+		QuadtreeBitmap[] roots = overlayInputs(bitmaps);
+		if (roots == null) {
+			return null;
+		}
+		return parallelism.invoke(new OverlayAllTask(roots[0].x, roots[0].y, roots[0].size, 
+				roots, parallelism));
+	}
+
+	private static QuadtreeBitmap combine(QuadtreeBitmap bmp1, QuadtreeBitmap bmp2, Operation op, 
+			QuadtreeParallelism parallelism) {
+		if (bmp1.getSize() != bmp2.getSize()) {
+			return null;
+		}
+		return parallelism.invoke(new CombineTask(bmp1, bmp2, op, parallelism));
+	}
+
+	private static final class InvertTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final QuadtreeBitmap node;
+		private final QuadtreeParallelism parallelism;
+
+		InvertTask(QuadtreeBitmap node, QuadtreeParallelism parallelism) {
+			this.node = node;
+			this.parallelism = parallelism;
+		}
+
+		@Override
+		protected void compute() {
+			if (node.leaf || parallelism.sequential(node.size)) {
+				node.invertColours(node);
+				return;
+			}
+			ForkJoinTask.invokeAll(new InvertTask(node.northWest, parallelism),
+					new InvertTask(node.northEast, parallelism),
+					new InvertTask(node.southWest, parallelism),
+					new InvertTask(node.southEast, parallelism));
+			node.recount();
+		}
+	}
+
+	private static final class SimplifyTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final QuadtreeBitmap node;
+		private final QuadtreeParallelism parallelism;
+
+		SimplifyTask(QuadtreeBitmap node, QuadtreeParallelism parallelism) {
+			this.node = node;
+			this.parallelism = parallelism;
+		}
+
+		@Override
+		protected void compute() {
+			if (node.leaf || parallelism.sequential(node.size)) {
+				node.simplifyBitmap(node);
+				return;
+			}
+			ForkJoinTask.invokeAll(new SimplifyTask(node.northWest, parallelism),
+					new SimplifyTask(node.northEast, parallelism),
+					new SimplifyTask(node.southWest, parallelism),
+					new SimplifyTask(node.southEast, parallelism));
+			// with simplified quadrants, the node is uniform exactly when they are equal leaves
+			node.collapse();
+		}
+	}
+
+	private static final class CombineTask extends RecursiveTask<QuadtreeBitmap> {
+		private static final long serialVersionUID = 1L;
+
+		private final QuadtreeBitmap quad1;
+		private final QuadtreeBitmap quad2;
+		private final Operation op;
+		private final QuadtreeParallelism parallelism;
+
+		CombineTask(QuadtreeBitmap quad1, QuadtreeBitmap quad2, Operation op, 
+				QuadtreeParallelism parallelism) {
+			this.quad1 = quad1;
+			this.quad2 = quad2;
+			this.op = op;
+			this.parallelism = parallelism;
+		}
+
+		@Override
+		protected QuadtreeBitmap compute() {
+			if (parallelism.sequential(quad1.size) 
+					|| quad1.uniformColour() != null || quad2.uniformColour() != null) {
+				return combineH(quad1, quad2, op);
+			}
+			CombineTask northEast = new CombineTask(quad1.northEast, quad2.northEast, op, parallelism);
+			CombineTask southWest = new CombineTask(quad1.southWest, quad2.southWest, op, parallelism);
+			CombineTask southEast = new CombineTask(quad1.southEast, quad2.southEast, op, parallelism);
+			northEast.fork();
+			southWest.fork();
+			southEast.fork();
+			QuadtreeBitmap northWest = new CombineTask(quad1.northWest, quad2.northWest, op, parallelism)
+					.compute();
+			QuadtreeBitmap result = new QuadtreeBitmap(quad1.x, quad1.y, quad1.size,
+					northWest, northEast.join(), southWest.join(), southEast.join());
+			result.collapse();
+			return result;
+		}
+	}
+
+	private static final class OverlayAllTask extends RecursiveTask<QuadtreeBitmap> {
+		private static final long serialVersionUID = 1L;
+
+		private final int x;
+		private final int y;
+		private final int size;
+		private final QuadtreeBitmap[] nodes;
+		private final QuadtreeParallelism parallelism;
+
+		OverlayAllTask(int x, int y, int size, QuadtreeBitmap[] nodes, 
+				QuadtreeParallelism parallelism) {
+			this.x = x;
+			this.y = y;
+			this.size = size;
+			this.nodes = nodes;
+			this.parallelism = parallelism;
+		}
+
+		@Override
+		protected QuadtreeBitmap compute() {
+			QuadtreeBitmap[] mixed = mixedNodes(nodes);
+			if (parallelism.sequential(size) || mixed == null || mixed.length < 2) {
+				return overlayAll(x, y, size, nodes);
+			}
+			int half = size/2;
+			OverlayAllTask northEast = new OverlayAllTask(x + half, y, half, 
+					quadrantsOf(mixed, 1), parallelism);
+			OverlayAllTask southWest = new OverlayAllTask(x, y + half, half, 
+					quadrantsOf(mixed, 2), parallelism);
+			OverlayAllTask southEast = new OverlayAllTask(x + half, y + half, half, 
+					quadrantsOf(mixed, 3), parallelism);
+			northEast.fork();
+			southWest.fork();
+			southEast.fork();
+			QuadtreeBitmap northWest = new OverlayAllTask(x, y, half, quadrantsOf(mixed, 0), 
+					parallelism).compute();
+			QuadtreeBitmap result = new QuadtreeBitmap(x, y, size,
+					northWest, northEast.join(), southWest.join(), southEast.join());
+			result.collapse();
+			return result;
+		}
+	}
+
+	private static final class BuildTask extends RecursiveTask<QuadtreeBitmap> {
+		private static final long serialVersionUID = 1L;
+
+		private final int x;
+		private final int y;
+		private final List<String> rows;
+		private final QuadtreeParallelism parallelism;
+
+		BuildTask(int x, int y, List<String> rows, QuadtreeParallelism parallelism) {
+			this.x = x;
+			this.y = y;
+			this.rows = rows;
+			this.parallelism = parallelism;
+		}
+
+		@Override
+		protected QuadtreeBitmap compute() {
+			int size = rows.size();
+			if (parallelism.sequential(size)) {
+				return fromRowStrings(x, y, rows);
+			}
+			Colour uniform = uniformRowColour(rows);
+			if (uniform != null) {
+				return new QuadtreeBitmap(x, y, size, uniform);
+			}
+			int xMid = x + size/2;
+			int yMid = y + size/2;
+			BuildTask northEast = new BuildTask(xMid, y, quadRowStrings(size/2, 0, rows), parallelism);
+			BuildTask southWest = new BuildTask(x, yMid, quadRowStrings(0, size/2, rows), parallelism);
+			BuildTask southEast = new BuildTask(xMid, yMid, quadRowStrings(size/2, size/2, rows), parallelism);
+			northEast.fork();
+			southWest.fork();
+			southEast.fork();
+			QuadtreeBitmap northWest = new BuildTask(x, y, quadRowStrings(0, 0, rows), parallelism)
+					.compute();
+			return new QuadtreeBitmap(x, y, size, 
+					northWest, northEast.join(), southWest.join(), southEast.join());
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////
+	// Lazy iteration over black pixels and runs, split by quadrant
+	/////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the locations of the black pixels of this bitmap, each packed into a long by
+	 * {@link #packPixel}, in Z-order (Morton order). Black leaves are found one at a time as
+	 * the stream is consumed, skipping every region without black pixels, and the stream
+	 * splits on quadrant boundaries, so it also runs well in parallel. The bitmap must not
+	 * be modified while the stream is in use.
+	 *
+	 * @return a stream of the packed locations of the black pixels
+	 */
+	public LongStream blackPixels() {
+		return StreamSupport.longStream(new PixelSpliterator(this, 0, area()), false);
+	}
+
+	/**
+	 * Returns the horizontal runs of black pixels of this bitmap, row by row from the top
+	 * and left to right within each row. Each run is found by descending to the next black
+	 * and then the next white pixel along its row, and rows crossing no black leaf are
+	 * skipped, so sparse bitmaps cost little however large they are. The stream splits on
+	 * quadrant boundaries between rows. The bitmap must not be modified while the stream
+	 * is in use.
+	 *
+	 * @return a stream of the runs of black pixels
+	 */
+	public Stream<PixelRun> blackRuns() {
+		return StreamSupport.stream(new RunSpliterator(this, y, y + size), false);
+	}
+
+	// number of black pixels of this node whose Morton index lies in [from, to), where the
+	// indices of this node start at base
+	private long countBlackInMorton(long base, long from, long to) {
+		long end = base + area();
+		if (end <= from || base >= to || blackCount == 0) {
+			return 0;
+		} else if (from <= base && end <= to) {
+			return blackCount;
+		} else if (blackCount == area()) {
+			return Math.min(end, to) - Math.max(base, from);
+		}
+		long quarter = area()/4;
+		return northWest.countBlackInMorton(base, from, to)
+				+ northEast.countBlackInMorton(base + quarter, from, to)
+				+ southWest.countBlackInMorton(base + 2*quarter, from, to)
+				+ southEast.countBlackInMorton(base + 3*quarter, from, to);
+	}
+
+	// the black leaf holding the first black pixel with a Morton index in [from, to),
+	// storing the first index of the leaf in leafBase[0], or null if there is none
+	private QuadtreeBitmap firstBlackLeaf(long base, long from, long to, long[] leafBase) {
+		if (base + area() <= from || base >= to || blackCount == 0) {
+			return null;
+		} else if (leaf) {
+			leafBase[0] = base;
+			return this;
+		}
+		long quarter = area()/4;
+		QuadtreeBitmap found = northWest.firstBlackLeaf(base, from, to, leafBase);
+		if (found == null) {
+			found = northEast.firstBlackLeaf(base + quarter, from, to, leafBase);
+		}
+		if (found == null) {
+			found = southWest.firstBlackLeaf(base + 2*quarter, from, to, leafBase);
+		}
+		if (found == null) {
+			found = southEast.firstBlackLeaf(base + 3*quarter, from, to, leafBase);
+		}
+		return found;
+	}
+
+	// inverse of spreadBits: gathers the even bits of a Morton offset
+	private static int compactBits(long bits) {
+		bits &= 0x5555555555555555L;
+		bits = (bits | (bits >>> 1)) & 0x3333333333333333L;
+		bits = (bits | (bits >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+		bits = (bits | (bits >>> 4)) & 0x00FF00FF00FF00FFL;
+		bits = (bits | (bits >>> 8)) & 0x0000FFFF0000FFFFL;
+		bits = (bits | (bits >>> 16)) & 0x00000000FFFFFFFFL;
+		return (int) bits;
+	}
+
+	// the first column at or after from in the given row whose pixel has the given colour,
+	// or -1 if this node has none
+	private int nextInRow(int row, int from, Colour colour) {
+		if (row < y || row >= y + size || from >= x + size) {
+			return -1;
+		}
+		Colour uniform = uniformColour();
+		if (uniform != null) {
+			return uniform.equals(colour) ? Math.max(from, x) : -1;
+		}
+		boolean north = row < y + size/2;
+		int found = (north ? northWest : southWest).nextInRow(row, from, colour);
+		return found >= 0 ? found : (north ? northEast : southEast).nextInRow(row, from, colour);
+	}
+
+	// the first row at or after from which crosses a black leaf of this node, or -1
+	private int nextBlackRow(int from) {
+		if (blackCount == 0 || from >= y + size) {
+			return -1;
+		} else if (blackCount == area()) {
+			return Math.max(from, y);
+		}
+		int north = earlierRow(northWest.nextBlackRow(from), northEast, from);
+		return north >= 0 ? north : earlierRow(southWest.nextBlackRow(from), southEast, from);
+	}
+
+	// the earlier of a row found in one quadrant and the first black row of its neighbour,
+	// which is only searched when the row found could still be beaten
+	private static int earlierRow(int found, QuadtreeBitmap neighbour, int from) {
+		if (found >= 0 && found <= Math.max(from, neighbour.y)) {
+			return found;
+		}
+		int other = neighbour.nextBlackRow(from);
+		if (found < 0 || other < 0) {
+			return Math.max(found, other);
+		}
+		return Math.min(found, other);
+	}
+
+	// a point strictly between from and to, which are at least two apart, on a boundary of
+	// the largest blocks of 2^(step*k) fitting between them, as close to their middle as
+	// possible; with step 2 on Morton indices these are the quadrant boundaries
+	private static long quadrantBoundary(long from, long to, int step) {
+		int bit = 63 - Long.numberOfLeadingZeros(from ^ (to - 1));
+		long block = 1L << (bit - bit % step);
+		long mid = (from + (to - from)/2) & -block;
+		return mid > from ? mid : mid + block;
+	}
+
+	// walks the black pixels with Morton indices, relative to the root, in [from, to)
+	private static final class PixelSpliterator implements Spliterator.OfLong {
+		private final QuadtreeBitmap root;
+		private long from;
+		private final long to;
+		// exact number of black pixels left, kept as the range shrinks
+		private long remaining;
+		// the black leaf holding the pixel at from, once found, and its first index
+		private QuadtreeBitmap leaf;
+		private final long[] leafBase = new long[1];
+
+		PixelSpliterator(QuadtreeBitmap root, long from, long to) {
+			this.root = root;
+			this.from = from;
+			this.to = to;
+			this.remaining = root.countBlackInMorton(0, from, to);
+		}
+
+		// moves from onto the next black pixel, returning false if there is none left
+		private boolean seek() {
+			if (remaining == 0) {
+				return false;
+			}
+			if (leaf == null || from >= leafBase[0] + leaf.area()) {
+				leaf = root.firstBlackLeaf(0, from, to, leafBase);
+				from = Math.max(from, leafBase[0]);
+			}
+			return true;
+		}
+
+		private long pixelAt(long index) {
+			long offset = index - leafBase[0];
+			return packPixel(leaf.x + compactBits(offset), leaf.y + compactBits(offset >>> 1));
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			if (!seek()) {
+				return false;
+			}
+			remaining--;
+			action.accept(pixelAt(from++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(LongConsumer action) {
+			while (seek()) {
+				long end = Math.min(to, leafBase[0] + leaf.area());
+				remaining -= end - from;
+				for (; from < end; from++) {
+					action.accept(pixelAt(from));
+				}
+			}
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit() {
+			if (remaining < 2 || to - from < 2) {
+				return null;
+			}
+			long mid = quadrantBoundary(from, to, 2);
+			PixelSpliterator prefix = new PixelSpliterator(root, from, mid);
+			from = mid;
+			remaining -= prefix.remaining;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+		}
+	}
+
+	// walks the runs of black pixels in the rows [row, bottom), continuing from column
+	private static final class RunSpliterator implements Spliterator<PixelRun> {
+		private final QuadtreeBitmap root;
+		private int row;
+		private int column;
+		private final int bottom;
+
+		RunSpliterator(QuadtreeBitmap root, int row, int bottom) {
+			this.root = root;
+			this.row = row;
+			this.column = root.x;
+			this.bottom = bottom;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super PixelRun> action) {
+			while (row < bottom) {
+				int start = root.nextInRow(row, column, Colour.BLACK);
+				if (start >= 0) {
+					int end = root.nextInRow(row, start, Colour.WHITE);
+					column = end >= 0 ? end : root.x + root.size;
+					action.accept(new PixelRun(row, start, column));
+					return true;
+				}
+				int next = root.nextBlackRow(row + 1);
+				row = next >= 0 ? next : bottom;
+				column = root.x;
+			}
+			return false;
+		}
+
+		@Override
+		public Spliterator<PixelRun> trySplit() {
+			// a row already partly walked stays with the prefix
+			int first = column == root.x ? row : row + 1;
+			if (bottom - first < 2) {
+				return null;
+			}
+			int mid = (int) quadrantBoundary(first, bottom, 1);
+			RunSpliterator prefix = new RunSpliterator(root, row, mid);
+			prefix.column = column;
+			row = mid;
+			column = root.x;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			// no more runs than black pixels, assuming those are spread evenly over the rows
+			return (long) ((double) root.blackCount * Math.max(0, bottom - row) / root.size);
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | NONNULL;
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////
+	// Spatial queries on black pixels, pruned by the per-node black counts
+	/////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the smallest rectangle containing every black pixel of this bitmap. Each edge 
+	 * is found by a best-first search from that side of the bitmap, which never enters a 
+	 * region without black pixels.
+	 *
+	 * @return the bounding box of the black pixels, or null if there are none
+	 */
+	public Rectangle blackBoundingBox() {
+		if (blackCount == 0) {
+			return null;
+		}
+		int top = blackEdge(TOP);
+		int bottom = blackEdge(BOTTOM);
+		int left = blackEdge(LEFT);
+		int right = blackEdge(RIGHT);
+		return new Rectangle(left, top, right - left + 1, bottom - top + 1);
+	}
+
+	/**
+	 * Returns the first black pixel of this bitmap in row-major order, i.e. the leftmost 
+	 * black pixel of the topmost row holding any.
+	 *
+	 * @return the location of the pixel packed by {@link #packPixel}, or empty if there are 
+	 *     no black pixels
+	 */
+	public OptionalLong firstBlackInRowMajor() {
+		if (blackCount == 0) {
+			return OptionalLong.empty();
+		}
+		int row = blackEdge(TOP);
+		return OptionalLong.of(packPixel(nextInRow(row, x, Colour.BLACK), row));
+	}
+
+	/**
+	 * Returns the last black pixel of this bitmap in row-major order, i.e. the rightmost 
+	 * black pixel of the bottommost row holding any.
+	 *
+	 * @return the location of the pixel packed by {@link #packPixel}, or empty if there are 
+	 *     no black pixels
+	 */
+	public OptionalLong lastBlackInRowMajor() {
+		if (blackCount == 0) {
+			return OptionalLong.empty();
+		}
+		int row = blackEdge(BOTTOM);
+		return OptionalLong.of(packPixel(lastBlackInRow(row), row));
+	}
+
+	/**
+	 * Returns a black pixel at the least Euclidean distance from the given location, which 
+	 * may lie outside the bitmap. Regions are searched best-first by their distance from 
+	 * the location, regions without black pixels are never entered, and the search ends at 
+	 * the first black leaf taken from the queue, as no region left can hold a nearer pixel.
+	 *
+	 * @param x the distance right of the origin of the location
+	 * @param y the distance below the origin of the location
+	 * @return the location of the pixel packed by {@link #packPixel}, or empty if there are 
+	 *     no black pixels
+	 */
+	public OptionalLong nearestBlack(int x, int y) {
+		if (blackCount == 0) {
+			return OptionalLong.empty();
+		}
+		PriorityQueue<QuadtreeBitmap> queue = new PriorityQueue<>(
+				Comparator.comparingLong(node -> node.distanceSquared(x, y)));
+		queue.add(this);
+		while (true) {
+			QuadtreeBitmap node = queue.poll();
+			if (node.blackCount == node.area()) {
+				// the nearest point of a black region is the location clamped into it
+				int nearestX = (int) Math.max(node.x, Math.min(x, (long) node.x + node.size - 1));
+				int nearestY = (int) Math.max(node.y, Math.min(y, (long) node.y + node.size - 1));
+				return OptionalLong.of(packPixel(nearestX, nearestY));
+			}
+			for (QuadtreeBitmap quad : node.quadrants()) {
+				if (quad.blackCount > 0) {
+					queue.add(quad);
+				}
+			}
+		}
+	}
+
+	// squared distance from the given location to the nearest pixel of this node
+	private long distanceSquared(int x, int y) {
+		long dx = Math.max(0, Math.max((long) this.x - x, (long) x - (this.x + size - 1)));
+		long dy = Math.max(0, Math.max((long) this.y - y, (long) y - (this.y + size - 1)));
+		return dx * dx + dy * dy;
+	}
+
+	private static final int TOP = 0, BOTTOM = 1, LEFT = 2, RIGHT = 3;
+
+	// the row or column of the black pixels of this node furthest towards the given side, 
+	// or -1 if it has none; regions are searched best-first by how far their own edge on 
+	// that side is from it, so the first black leaf taken from the queue is the answer
+	private int blackEdge(int side) {
+		if (blackCount == 0) {
+			return -1;
+		}
+		boolean towardsZero = side == TOP || side == LEFT;
+		PriorityQueue<QuadtreeBitmap> queue = new PriorityQueue<>(Comparator.comparingInt(
+				node -> towardsZero ? node.boundary(side) : -node.boundary(side)));
+		queue.add(this);
+		while (true) {
+			QuadtreeBitmap node = queue.poll();
+			if (node.blackCount == node.area()) {
+				return node.boundary(side);
+			}
+			for (QuadtreeBitmap quad : node.quadrants()) {
+				if (quad.blackCount > 0) {
+					queue.add(quad);
+				}
+			}
+		}
+	}
+
+	// the outermost row or column of this node on the given side
+	private int boundary(int side) {
+		return side == TOP ? y : side == BOTTOM ? y + size - 1 : side == LEFT ? x : x + size - 1;
+	}
+
+	// the last column in the given row whose pixel is black, or -1 if this node has none
+	private int lastBlackInRow(int row) {
+		if (row < y || row >= y + size || blackCount == 0) {
+			return -1;
+		} else if (blackCount == area()) {
+			return x + size - 1;
+		}
+		boolean north = row < y + size/2;
+		int found = (north ? northEast : southEast).lastBlackInRow(row);
+		return found >= 0 ? found : (north ? northWest : southWest).lastBlackInRow(row);
+	}
+
+	///////////////////////////////////////////////////
+	// End of assignment methods
+	///////////////////////////////////////////////////
+
+	public static void main(String[] args) {
+		/* This is here for you to optionally use for your own testing / running. 
+		 * This method will NOT be tested. Feel free to experment here.
+		 */
+		System.out.println("Enter a string representation for a bitmap, "
+				+ "followed by EOF or \"end\".");
+		QuadtreeBitmap inputBmp = readBmpFromStream(System.in);
+		System.out.println("  ");
+		//System.out.println(inputBmp);
+		
+		//String inverted = inputBmp.invertColours();
+		
+		//System.out.print(inverted);
+		inputBmp.slice();
+		System.out.println(inputBmp.toTreeString());
+		
+		
+	}
+	
+	// convenience method for constructing quadtrees from string representations of 
+	// bitmaps from stdin; rows are fed to a Builder as they arrive, and trailing blank 
+	// lines are ignored while blank lines between rows are kept as they are
+	public static QuadtreeBitmap readBmpFromStream(InputStream stream) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+		Builder builder = new Builder();
+		List<String> blankLines = new ArrayList<>();
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.chars().allMatch(Character::isWhitespace)) {
+					blankLines.add(line);
+					continue;
+				} else if (line.equals("end")) {
+					// blank lines before the marker are rows, unless empty and trailing
+					while (!blankLines.isEmpty() && blankLines.get(blankLines.size() - 1).isEmpty()) {
+						blankLines.remove(blankLines.size() - 1);
+					}
+					break;
+				}
+				blankLines.forEach(builder::addRow);
+				blankLines.clear();
+				builder.addRow(line);
+			}
+			if (line != null) {
+				blankLines.forEach(builder::addRow);
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		if (builder.rows == 0) {
+			// no rows read from the stream are taken as the empty string
+			builder.addRow("");
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Writes this bitmap to the given stream in the compact binary snapshot format, two 
+	 * bits per node of the simplified tree. See {@link #readBinary(InputStream)} and 
+	 * {@link MappedQuadtreeBitmap} for reading it back.
+	 *
+	 * @param out the stream to write to, which is neither flushed nor closed
+	 * @throws IOException if writing fails
+	 */
+	public void writeBinary(OutputStream out) throws IOException {
+		QuadtreeBinaryFormat.CodeWriter writer = encode();
+		ByteBuffer payload = writer.payload();
+		ByteBuffer header = QuadtreeBinaryFormat.header(size, writer.count(), 
+				QuadtreeBinaryFormat.checksum(payload));
+		out.write(header.array(), 0, header.remaining());
+		out.write(payload.array(), payload.position(), payload.remaining());
+	}
+
+	/**
+	 * Writes this bitmap to the given channel, at its current position, in the compact 
+	 * binary snapshot format.
+	 *
+	 * @param channel the channel to write to, which is not closed
+	 * @throws IOException if writing fails
+	 */
+	public void writeBinary(FileChannel channel) throws IOException {
+		QuadtreeBinaryFormat.CodeWriter writer = encode();
+		ByteBuffer payload = writer.payload();
+		ByteBuffer header = QuadtreeBinaryFormat.header(size, writer.count(), 
+				QuadtreeBinaryFormat.checksum(payload));
+		ByteBuffer[] buffers = {header, payload};
+		while (payload.hasRemaining()) {
+			channel.write(buffers);
+		}
+	}
+
+	/**
+	 * Reads a bitmap written by {@link #writeBinary(OutputStream)}, checking it against the 
+	 * checksum it was written with.
+	 *
+	 * @param in the stream to read from, which is not closed
+	 * @return the bitmap read
+	 * @throws IOException if reading fails or the data is not a valid snapshot
+	 */
+	public static QuadtreeBitmap readBinary(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		byte[] headerBytes = new byte[QuadtreeBinaryFormat.HEADER_BYTES];
+		data.readFully(headerBytes);
+		QuadtreeBinaryFormat header = QuadtreeBinaryFormat.readHeader(ByteBuffer.wrap(headerBytes));
+		if (header.payloadBytes() > Integer.MAX_VALUE) {
+			throw new IOException("Snapshot too large to read into memory.");
+		}
+		byte[] payloadBytes = new byte[(int) header.payloadBytes()];
+		data.readFully(payloadBytes);
+		return decode(ByteBuffer.wrap(payloadBytes), header);
+	}
+
+	private QuadtreeBinaryFormat.CodeWriter encode() {
+		QuadtreeBinaryFormat.CodeWriter writer = new QuadtreeBinaryFormat.CodeWriter();
+		encode(writer);
+		return writer;
+	}
+
+	// writes the codes of this subtree in pre-order, collapsing any unsimplified regions
+	private void encode(QuadtreeBinaryFormat.CodeWriter writer) {
+		Colour uniform = uniformColour();
+		if (uniform != null) {
+			writer.write(uniform.equals(Colour.BLACK) 
+					? QuadtreeBinaryFormat.BLACK : QuadtreeBinaryFormat.WHITE);
+		} else {
+			writer.write(QuadtreeBinaryFormat.INTERNAL);
+			northWest.encode(writer);
+			northEast.encode(writer);
+			southWest.encode(writer);
+			southEast.encode(writer);
+		}
+	}
+
+	// verifies a snapshot payload and rebuilds the tree it describes
+	static QuadtreeBitmap decode(ByteBuffer payload, QuadtreeBinaryFormat header) throws IOException {
+		header.verify(payload);
+		long[] cursor = {0};
+		QuadtreeBitmap bmp = decode(payload, cursor, 0, 0, header.size);
+		if (cursor[0] != header.nodeCount) {
+			throw new IOException("Snapshot node count mismatch.");
+		}
+		return bmp;
+	}
+
+	private static QuadtreeBitmap decode(ByteBuffer payload, long[] cursor, int x, int y, int size) 
+			throws IOException {
+		if (cursor[0] >= 4L * payload.remaining()) {
+			throw new IOException("Snapshot payload truncated.");
+		}
+		int code = QuadtreeBinaryFormat.code(payload, cursor[0]++);
+		if (code == QuadtreeBinaryFormat.WHITE || code == QuadtreeBinaryFormat.BLACK) {
+			return new QuadtreeBitmap(x, y, size, 
+					code == QuadtreeBinaryFormat.BLACK ? Colour.BLACK : Colour.WHITE);
+		} else if (code != QuadtreeBinaryFormat.INTERNAL || size == 1) {
+			throw new IOException("Corrupt snapshot node.");
+		}
+		int half = size/2;
+		return new QuadtreeBitmap(x, y, size,
+				decode(payload, cursor, x, y, half),
+				decode(payload, cursor, x + half, y, half),
+				decode(payload, cursor, x, y + half, half),
+				decode(payload, cursor, x + half, y + half, half));
+	}
+
+	/**
+	 * Constructs a quadtree from a packed bitset of its pixels in row-major order: the pixel
+	 * at (x, y) is black if bit {@code y * size + x} is set, bit i being bit {@code i % 64}
+	 * of {@code bits[i / 64]}, as in {@link java.util.BitSet#toLongArray}. Regions up to 64
+	 * pixels wide are checked for uniformity a word per row at a time, and larger regions
+	 * are joined bottom-up from their quadrants, so the pixels are never looked at one by one
+	 * except in mixed regions.
+	 *
+	 * @param bits the pixels, one bit each, in row-major order
+	 * @param size the height and width of the bitmap, a power of 2
+	 * @return a quadtree bitmap representation of the bitset
+	 */
+	public static QuadtreeBitmap fromBitset(long[] bits, int size) {
+		if (!powerOfTwo(size)) {
+			throw new IllegalArgumentException("Size not power of 2.");
+		} else if (bits.length != bitsetWords(size)) {
+			throw new IllegalArgumentException("Bitset length does not match size.");
+		}
+		return fromBitset(bits, size, 0, 0, size);
+	}
+
+	// the region of the given size at (x, y) of a bitset of the given width, also used by 
+	// BitsetQuadtreeBitmap for the regions its queries have not reached
+	static QuadtreeBitmap fromBitset(long[] bits, int width, int x, int y, int size) {
+		if (size <= Long.SIZE) {
+			Colour uniform = uniformBitsetColour(bits, width, x, y, size);
+			if (uniform != null) {
+				return new QuadtreeBitmap(x, y, size, uniform);
+			}
+		}
+		int half = size/2;
+		return join(fromBitset(bits, width, x, y, half),
+				fromBitset(bits, width, x + half, y, half),
+				fromBitset(bits, width, x, y + half, half),
+				fromBitset(bits, width, x + half, y + half, half));
+	}
+
+	// the colour of every pixel of a region at most 64 wide if they all agree, null otherwise;
+	// the region's rows never straddle two words, as its size divides both 64 and the width
+	private static Colour uniformBitsetColour(long[] bits, int width, int x, int y, int size) {
+		long mask = size == Long.SIZE ? -1L : (1L << size) - 1;
+		long any = 0;
+		long all = mask;
+		for (int row = 0; row < size; row++) {
+			long index = (long) (y + row) * width + x;
+			long word = (bits[(int) (index >>> 6)] >>> index) & mask;
+			any |= word;
+			all &= word;
+			if (any != 0 && all != mask) {
+				return null;
+			}
+		}
+		return any == 0 ? Colour.WHITE : Colour.BLACK;
+	}
+
+	// number of words in the packed bitset of a bitmap of the given size
+	static int bitsetWords(int size) {
+		long words = ((long) size * size + Long.SIZE - 1) / Long.SIZE;
+		if (words > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Bitmap too large for a bitset.");
+		}
+		return (int) words;
+	}
+
+	/**
+	 * Returns the pixels of this bitmap as a packed bitset in the row-major layout accepted
+	 * by {@link #fromBitset}. Each black leaf sets its rows a word at a time.
+	 *
+	 * @return the pixels, one bit each, in row-major order
+	 */
+	public long[] toBitset() {
+		long[] bits = new long[bitsetWords(size)];
+		setBlackBits(bits, x, y, size);
+		return bits;
+	}
+
+	// sets the bits of the black pixels of this node in the bitset of the bitmap with the
+	// given origin and width
+	private void setBlackBits(long[] bits, int originX, int originY, int width) {
+		if (blackCount == 0) {
+			return;
+		} else if (leaf) {
+			for (int row = 0; row < size; row++) {
+				long from = (long) (y - originY + row) * width + (x - originX);
+				setBits(bits, from, from + size);
+			}
+			return;
+		}
+		northWest.setBlackBits(bits, originX, originY, width);
+		northEast.setBlackBits(bits, originX, originY, width);
+		southWest.setBlackBits(bits, originX, originY, width);
+		southEast.setBlackBits(bits, originX, originY, width);
+	}
+
+	// sets the bits [from, to) of a bitset
+	private static void setBits(long[] bits, long from, long to) {
+		int first = (int) (from >>> 6);
+		int last = (int) ((to - 1) >>> 6);
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> -to;
+		if (first == last) {
+			bits[first] |= firstMask & lastMask;
+			return;
+		}
+		bits[first] |= firstMask;
+		Arrays.fill(bits, first + 1, last, -1L);
+		bits[last] |= lastMask;
+	}
+
+	/**
+	 * Reads a bitmap from a binary PBM (P4) image, whose width and height must be equal and
+	 * a power of 2. Rows at least 64 pixels wide are converted into the packed bitset of
+	 * {@link #fromBitset} eight bytes at a time, so reading is dominated by the input.
+	 *
+	 * @param in the stream to read the image from, which is not closed
+	 * @return the bitmap read
+	 * @throws IOException if reading fails or the data is not a suitable PBM image
+	 */
+	public static QuadtreeBitmap readPbm(InputStream in) throws IOException {
+		if (in.read() != 'P' || in.read() != '4') {
+			throw new IOException("Not a binary PBM image.");
+		}
+		int width = readPbmNumber(in);
+		int height = readPbmNumber(in);
+		if (width != height || !powerOfTwo(width)) {
+			throw new IOException("PBM image not square with a power of 2 size.");
+		}
+		int size = width;
+		long[] bits = new long[bitsetWords(size)];
+		byte[] row = new byte[(size + 7) / 8];
+		ByteBuffer rowBuffer = ByteBuffer.wrap(row);
+		DataInputStream data = new DataInputStream(in);
+		for (int y = 0; y < size; y++) {
+			data.readFully(row);
+			if (size >= Long.SIZE) {
+				// PBM packs pixels most significant bit first, the bitset least significant first
+				int offset = y * (size / Long.SIZE);
+				for (int i = 0; i < size / Long.SIZE; i++) {
+					bits[offset + i] = Long.reverse(rowBuffer.getLong(i * Long.BYTES));
+				}
+			} else {
+				long mask = size >= Byte.SIZE ? 0xFF : (1L << size) - 1;
+				for (int i = 0; i < row.length; i++) {
+					long index = (long) y * size + i * Byte.SIZE;
+					long pixels = (Integer.reverse(row[i] & 0xFF) >>> 24) & mask;
+					bits[(int) (index >>> 6)] |= pixels << index;
+				}
+			}
+		}
+		return fromBitset(bits, size);
+	}
+
+	// reads a decimal number of the PBM header, skipping whitespace and comments before it
+	// and consuming the single whitespace character after it
+	private static int readPbmNumber(InputStream in) throws IOException {
+		int ch = in.read();
+		while (ch == '#' || Character.isWhitespace(ch)) {
+			if (ch == '#') {
+				while (ch != '\n' && ch != '\r' && ch != -1) {
+					ch = in.read();
+				}
+			}
+			ch = in.read();
+		}
+		if (ch < '0' || ch > '9') {
+			throw new IOException("Malformed PBM header.");
+		}
+		long number = 0;
+		while (ch >= '0' && ch <= '9') {
+			number = 10 * number + (ch - '0');
+			if (number > Integer.MAX_VALUE) {
+				throw new IOException("PBM image too large.");
+			}
+			ch = in.read();
+		}
+		if (!Character.isWhitespace(ch)) {
+			throw new IOException("Malformed PBM header.");
+		}
+		return (int) number;
+	}
+
+	/**
+	 * Writes this bitmap to the given stream as a binary PBM (P4) image.
+	 *
+	 * @param out the stream to write to, which is neither flushed nor closed
+	 * @throws IOException if writing fails
+	 */
+	public void writePbm(OutputStream out) throws IOException {
+		long[] bits = toBitset();
+		out.write(("P4\n" + size + " " + size + "\n").getBytes(StandardCharsets.US_ASCII));
+		byte[] row = new byte[(size + 7) / 8];
+		ByteBuffer rowBuffer = ByteBuffer.wrap(row);
+		long mask = size >= Byte.SIZE ? 0xFF : (1L << size) - 1;
+		for (int y = 0; y < size; y++) {
+			if (size >= Long.SIZE) {
+				int offset = y * (size / Long.SIZE);
+				for (int i = 0; i < size / Long.SIZE; i++) {
+					rowBuffer.putLong(i * Long.BYTES, Long.reverse(bits[offset + i]));
+				}
+			} else {
+				for (int i = 0; i < row.length; i++) {
+					long index = (long) y * size + i * Byte.SIZE;
+					int pixels = (int) ((bits[(int) (index >>> 6)] >>> index) & mask);
+					row[i] = (byte) (Integer.reverse(pixels) >>> 24);
+				}
+			}
+			out.write(row);
+		}
+	}
+
+	////////////////////////////////////////////////////////////////////////
+	// You do not need to concern yourself with the code beyond this point
+	////////////////////////////////////////////////////////////////////////
+	
+	// shared with the other bitmap engines in this package
+	static boolean powerOfTwo(int n) {
+		try {
+			int x = 1;
+			while (x < n) {
+				// throws ArithmeticException on overflow
+				x = Math.multiplyExact(x, 2);
+			}
+			if (x == n) {
+				return true;
+			} else {
+				return false;
+			}
+		} catch (ArithmeticException ex) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Constructs a quadtree from the bitmap represented by the input string. Fails with an
+	 * {@code IllegalArgumentException} if the input string does not properly encode a valid 
+	 * bitmap.
+	 * 
+	 * @param bmpString input string to be converted into a quadtree bitmap
+	 * @return a quadtree bitmap representation of the input string
+	 */
+	public static QuadtreeBitmap fromString(String bmpString) {
+		QuadtreeOperationEvent event = QuadtreeMetrics.begin("fromString");
+		Builder builder = new Builder();
+		LINE_BREAK.splitAsStream(bmpString).forEachOrdered(builder::addRow);
+		QuadtreeBitmap bmp = builder.build();
+		QuadtreeMetrics.end(event, bmp.size);
+		return bmp;
+	}
+
+	private static final Pattern LINE_BREAK = Pattern.compile("\\R");
+
+	/**
+	 * Constructs a quadtree from the rows of text read from the given reader, one row per 
+	 * line, in the format accepted by {@link #fromString}. Rows are validated and merged 
+	 * into the tree as they are read, so the text is never held in memory as a whole. 
+	 * Fails with an {@code IllegalArgumentException} if the text does not properly encode 
+	 * a valid bitmap.
+	 *
+	 * @param reader the source of the rows, read to its end but not closed
+	 * @return a quadtree bitmap representation of the text read
+	 * @throws IOException if reading fails
+	 */
+	public static QuadtreeBitmap fromReader(Reader reader) throws IOException {
+		BufferedReader lines = reader instanceof BufferedReader 
+				? (BufferedReader) reader : new BufferedReader(reader);
+		Builder builder = new Builder();
+		String line;
+		while ((line = lines.readLine()) != null) {
+			builder.addRow(line);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Builds a quadtree bitmap from its rows, supplied top to bottom. Each row is checked 
+	 * as it is added, and while the rows are valid every pair of finished rows is merged 
+	 * bottom-up into nodes, so at any time the builder only holds one pending band of nodes 
+	 * per level of the tree: memory in the order of the width times the height of the tree, 
+	 * besides the nodes of the result. Invalid rows stop the merging, and {@link #build} 
+	 * then fails with an {@code IllegalArgumentException} carrying the same message, chosen 
+	 * in the same order, as {@link #fromString} always has.
+	 */
+	public static final class Builder {
+		// set by the first row
+		private int width = -1;
+		private int rows = 0;
+		// the first row whose width differs from the first, and the first illegal character
+		private int unevenRow = -1;
+		private String illegalCharacter;
+		// the upper row of the pair currently being completed
+		private String pendingRow;
+		// per level above single pixels, the upper band of nodes waiting for its lower band
+		private QuadtreeBitmap[][] pendingBands;
+		private QuadtreeBitmap root;
+
+		/**
+		 * Appends the next row of the bitmap.
+		 *
+		 * @param row the textures of the pixels in the row, left to right
+		 * @return this builder
+		 */
+		public Builder addRow(CharSequence row) {
+			String text = row.toString();
+			if (width < 0) {
+				width = text.length();
+				if (powerOfTwo(width)) {
+					pendingBands = new QuadtreeBitmap[Integer.numberOfTrailingZeros(width) + 1][];
+				}
+			} else if (text.length() != width && unevenRow < 0) {
+				unevenRow = rows;
+			}
+			if (illegalCharacter == null) {
+				for (int i = 0; i < text.length(); i++) {
+					if (!Colour.isTexture(text.charAt(i))) {
+						int ic = text.codePointAt(i);
+						illegalCharacter = String.valueOf(Character.toChars(ic));
+						break;
+					}
+				}
+			}
+			int y = rows++;
+			if (pendingBands == null || unevenRow >= 0 || illegalCharacter != null || y >= width) {
+				// invalid, so build reports why rather than anything being merged
+				pendingRow = null;
+			} else if (width == 1) {
+				root = new QuadtreeBitmap(0, y, 1, colourOf(text.charAt(0)));
+			} else if (y % 2 == 0) {
+				pendingRow = text;
+			} else {
+				carry(mergeRows(pendingRow, text, y - 1), 1);
+				pendingRow = null;
+			}
+			return this;
+		}
+
+		/**
+		 * Returns the bitmap made up of the rows added so far, which must be as many as 
+		 * they are wide.
+		 *
+		 * @return the quadtree bitmap built from the rows
+		 */
+		public QuadtreeBitmap build() {
+			if (rows == 0) {
+				throw new IllegalArgumentException("Empty bitmap string.");
+			} else if (!powerOfTwo(rows)) {
+				throw new IllegalArgumentException("Number of rows not a power of 2.");
+			} else if (!powerOfTwo(width)) {
+				throw new IllegalArgumentException("Row width not a power of 2.");
+			} else if (unevenRow >= 0) {
+				throw new IllegalArgumentException("Row " + unevenRow + " not same width as other rows.");
+			} else if (illegalCharacter != null) {
+				throw new IllegalArgumentException("Illegal character detected: " 
+						+ "'" + illegalCharacter + "'");
+			} else if (rows != width) {
+				throw new IllegalArgumentException("Number of rows not equal to row width.");
+			}
+			return root;
+		}
+
+		// combines two rows of single pixels into a band of 2x2 nodes
+		private QuadtreeBitmap[] mergeRows(String upper, String lower, int y) {
+			QuadtreeBitmap[] band = new QuadtreeBitmap[width/2];
+			for (int i = 0; i < band.length; i++) {
+				int x = 2*i;
+				char nw = upper.charAt(x);
+				char ne = upper.charAt(x + 1);
+				char sw = lower.charAt(x);
+				char se = lower.charAt(x + 1);
+				if (nw == ne && nw == sw && nw == se) {
+					band[i] = new QuadtreeBitmap(x, y, 2, colourOf(nw));
+				} else {
+					band[i] = new QuadtreeBitmap(x, y, 2,
+							new QuadtreeBitmap(x, y, 1, colourOf(nw)),
+							new QuadtreeBitmap(x + 1, y, 1, colourOf(ne)),
+							new QuadtreeBitmap(x, y + 1, 1, colourOf(sw)),
+							new QuadtreeBitmap(x + 1, y + 1, 1, colourOf(se)));
+				}
+			}
+			return band;
+		}
+
+		// parks a finished band at its level, or merges it with the band waiting above it
+		private void carry(QuadtreeBitmap[] band, int level) {
+			while (band.length > 1) {
+				QuadtreeBitmap[] upper = pendingBands[level];
+				if (upper == null) {
+					pendingBands[level] = band;
+					return;
+				}
+				pendingBands[level] = null;
+				QuadtreeBitmap[] merged = new QuadtreeBitmap[band.length/2];
+				for (int i = 0; i < merged.length; i++) {
+					merged[i] = merge(upper[2*i], upper[2*i + 1], band[2*i], band[2*i + 1]);
+				}
+				band = merged;
+				level++;
+			}
+			root = band[0];
+		}
+
+		private static QuadtreeBitmap merge(QuadtreeBitmap northWest, QuadtreeBitmap northEast, 
+				QuadtreeBitmap southWest, QuadtreeBitmap southEast) {
+			int size = 2 * northWest.size;
+			if (northWest.leaf && northEast.leaf && southWest.leaf && southEast.leaf
+					&& northWest.colour.equals(northEast.colour)
+					&& northWest.colour.equals(southWest.colour)
+					&& northWest.colour.equals(southEast.colour)) {
+				QuadtreeMetrics.merged(4);
+				return new QuadtreeBitmap(northWest.x, northWest.y, size, northWest.colour);
+			}
+			return new QuadtreeBitmap(northWest.x, northWest.y, size, 
+					northWest, northEast, southWest, southEast);
+		}
+
+		private static Colour colourOf(char texture) {
+			return texture == Colour.BLACK.getTexture() ? Colour.BLACK : Colour.WHITE;
+		}
+	}
+
+	/**
+	 * Constructs a quadtree from the bitmap represented by the input string, building the 
+	 * quadrants in parallel on the given pool. Gives the same result as 
+	 * {@link #fromString(String)}.
+	 * 
+	 * @param bmpString input string to be converted into a quadtree bitmap
+	 * @param parallelism the pool and sequential threshold to run with
+	 * @return a quadtree bitmap representation of the input string
+	 */
+	public static QuadtreeBitmap fromString(String bmpString, QuadtreeParallelism parallelism) {
+		validateBmpString(bmpString);
+		return parallelism.invoke(new BuildTask(0, 0, Arrays.asList(bmpString.split("\\R")), parallelism));
+	}
+
+	// recursive helper method for fromString
+	private static QuadtreeBitmap fromRowStrings(int x, int y, List<String> rows) {
+		int size = rows.size();
+		Colour uniform = uniformRowColour(rows);
+		if (uniform != null) {
+			return new QuadtreeBitmap(x, y, size, uniform);
+		} else {
+			int xMid = x + size/2;
+			int yMid = y + size/2;
+			// split rows into quadrants
+			List<String> nwRows = quadRowStrings(0, 0, rows);
+			List<String> neRows = quadRowStrings(size/2, 0, rows);
+			List<String> swRows = quadRowStrings(0, size/2, rows);
+			List<String> seRows = quadRowStrings(size/2, size/2, rows);
+			// build each subtree
+			QuadtreeBitmap northWest = fromRowStrings(x, y, nwRows); 
+			QuadtreeBitmap northEast = fromRowStrings(xMid, y, neRows);
+			QuadtreeBitmap southWest = fromRowStrings(x, yMid, swRows);
+			QuadtreeBitmap southEast = fromRowStrings(xMid, yMid, seRows);
+			// combine
+			List<QuadtreeBitmap> quads = Arrays.asList(northWest, northEast, southWest, southEast);
+			return new QuadtreeBitmap(x, y, size, quads);
+		}
+	}
+
+	// the colour of every pixel in the rows if they all agree, null otherwise
+	private static Colour uniformRowColour(List<String> rows) {
+		if (!rows.stream().anyMatch(str -> str.contains(Colour.BLACK.toString()))) {
+			// all white
+			return Colour.WHITE;
+		} else if (!rows.stream().anyMatch(str -> str.contains(Colour.WHITE.toString()))) {
+			// all black
+			return Colour.BLACK;
+		}
+		return null;
+	}
+
+	// extracts row strings for quadrant from row strings for bitmap
+	private static List<String> quadRowStrings(int xRel, int yRel, List<String> rows) {
+		int size = rows.size();
+		// sublist selects rows, substring selects columns
+		return rows.subList(yRel, yRel + size/2).stream()
+				.map(row -> row.substring(xRel, xRel + size/2))
+				.collect(Collectors.toList());
+	}
+
+	// does nothing if input valid, communicates invalidity via exceptions
+	static void validateBmpString(String bmpString) {
+		String[] rows = bmpString.split("\\R");
+		if (rows.length == 0) {
+			throw new IllegalArgumentException("Empty bitmap string.");
+		} else if (!powerOfTwo(rows.length)) {
+			throw new IllegalArgumentException("Number of rows not a power of 2.");
+		} else if (!powerOfTwo(rows[0].length())) {
+			throw new IllegalArgumentException("Row width not a power of 2.");
+		} else {
+			// using first row to determine row width
+			int width = rows[0].length();
+			for (int i = 1; i < rows.length; i++) {
+				if (rows[i].length() != width) {
+					throw new IllegalArgumentException(
+							"Row " + i + " not same width as other rows.");
+				}
+			}
+			for (String row : rows) {
+				if (!row.codePoints().allMatch(Colour::isTexture)) {
+					int ic = row.codePoints()
+							.filter(c -> !Colour.isTexture(c))
+							.findFirst().getAsInt();
+					throw new IllegalArgumentException("Illegal character detected: " 
+							+ "'" + String.valueOf(Character.toChars(ic)) + "'");
+				}
+			}
+			if (rows.length != width) {
+				throw new IllegalArgumentException("Number of rows not equal to row width.");
+			}
+		}
+	}
+
+	/**
+	 * Returns a string representation of the tree structure of this quadtree bitmap. 
+	 * The string representation is similar to the representation returned by {@link #toString},
+	 * but with boxing interspersed to indicate the boundaries of the regions represented by 
+	 * leaf nodes in the quadtree.
+	 * 
+	 * @return a string representation of this quadtree
+	 */
+	public String toTreeString() {
+		StringBuilder sb = new StringBuilder();
+		try {
+			writeTreeTo(sb);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the string representation returned by {@link #toTreeString} to the given 
+	 * destination, one line at a time. Only the leaves on the pixel rows either side of the 
+	 * current line are held in memory, so the bitmap never has to fit on a canvas.
+	 *
+	 * @param out the destination to write the tree representation to
+	 * @throws IOException if writing to the destination fails
+	 */
+	public void writeTreeTo(Appendable out) throws IOException {
+		writeTreeTo(out, x, y, size, size);
+	}
+
+	/**
+	 * Writes the part of the string representation returned by {@link #toTreeString} that 
+	 * covers the given rectangle of pixels to the given destination: the boxes of the leaves 
+	 * overlapping it, cut off at its edges. Parts of the rectangle outside the bitmap are 
+	 * ignored, and nothing is written if no pixel of the bitmap is inside it.
+	 *
+	 * @param out the destination to write the tree representation to
+	 * @param x the distance right of the origin of the rectangle's left edge
+	 * @param y the distance below the origin of the rectangle's top edge
+	 * @param w the width of the rectangle
+	 * @param h the height of the rectangle
+	 * @throws IOException if writing to the destination fails
+	 */
+	public void writeTreeTo(Appendable out, int x, int y, int w, int h) throws IOException {
+		if (w < 0 || h < 0) {
+			throw new IllegalArgumentException("Negative rectangle size.");
+		}
+		int left = Math.max(x, this.x);
+		int top = Math.max(y, this.y);
+		int right = (int) Math.min((long) x + w, (long) this.x + size);
+		int bottom = (int) Math.min((long) y + h, (long) this.y + size);
+		if (left >= right || top >= bottom) {
+			return;
+		}
+		// the leaves covering the pixel rows above and below the current line, one per 
+		// column from the column left of the viewport to the column right of it
+		QuadtreeBitmap[] above = new QuadtreeBitmap[right - left + 2];
+		QuadtreeBitmap[] below = new QuadtreeBitmap[right - left + 2];
+		char[] line = new char[2*(right - left) + 1];
+		leavesInRow(above, top - 1, left - 1);
+		leavesInRow(below, top, left - 1);
+		for (int row = top; ; row++) {
+			boundaryLine(line, above, below, left - 1, row);
+			appendLine(out, line);
+			if (row == bottom) {
+				return;
+			}
+			out.append(System.lineSeparator());
+			pixelRowLine(line, below);
+			appendLine(out, line);
+			out.append(System.lineSeparator());
+			QuadtreeBitmap[] next = above;
+			above = below;
+			below = next;
+			leavesInRow(below, row + 1, left - 1);
+		}
+	}
+
+	private static final char CORNER = '+', V_WALL = '|', H_WALL = '-', FILLER = ' ';
+
+	// fills the line through the middle of a row of pixels, given the leaves covering them
+	private static void pixelRowLine(char[] line, QuadtreeBitmap[] cells) {
+		for (int i = 0; i < line.length; i++) {
+			int column = i/2;
+			if (i % 2 == 1) {
+				line[i] = cells[column + 1].colour.getTexture();
+			} else {
+				// a wall wherever neighbouring pixels belong to different leaves
+				line[i] = cells[column] != cells[column + 1] ? V_WALL : FILLER;
+			}
+		}
+	}
+
+	// fills the line along the top edge of a row of pixels, given the leaves covering the 
+	// pixels above and below it; a corner of any leaf takes precedence over a wall
+	private static void boundaryLine(char[] line, QuadtreeBitmap[] above, QuadtreeBitmap[] below, 
+			int firstColumn, int row) {
+		for (int i = 0; i < line.length; i++) {
+			int column = i/2;
+			if (i % 2 == 1) {
+				line[i] = above[column + 1] != below[column + 1] ? H_WALL : FILLER;
+				continue;
+			}
+			QuadtreeBitmap aboveLeft = above[column], aboveRight = above[column + 1];
+			QuadtreeBitmap belowLeft = below[column], belowRight = below[column + 1];
+			int gridX = firstColumn + column + 1;
+			if (cornerAt(aboveLeft, gridX, row) || cornerAt(aboveRight, gridX, row) 
+					|| cornerAt(belowLeft, gridX, row) || cornerAt(belowRight, gridX, row)) {
+				line[i] = CORNER;
+			} else if (aboveLeft != belowLeft || aboveRight != belowRight) {
+				line[i] = H_WALL;
+			} else if (aboveLeft != aboveRight) {
+				line[i] = V_WALL;
+			} else {
+				line[i] = FILLER;
+			}
+		}
+	}
+
+	// whether the given grid point is a corner of the given leaf, if there is one
+	private static boolean cornerAt(QuadtreeBitmap leaf, long gridX, long gridY) {
+		return leaf != null 
+				&& (gridX == leaf.x || gridX == (long) leaf.x + leaf.size) 
+				&& (gridY == leaf.y || gridY == (long) leaf.y + leaf.size);
+	}
+
+	// records the leaf covering each pixel of a row, starting at the given column, with 
+	// null for pixels outside the bitmap
+	private void leavesInRow(QuadtreeBitmap[] cells, int row, int firstColumn) {
+		Arrays.fill(cells, null);
+		collectLeavesInRow(cells, row, firstColumn);
+	}
+
+	private void collectLeavesInRow(QuadtreeBitmap[] cells, int row, int firstColumn) {
+		long start = Math.max(x, firstColumn);
+		long end = Math.min((long) x + size, (long) firstColumn + cells.length);
+		if (row < y || row >= (long) y + size || start >= end) {
+			return;
+		} else if (leaf) {
+			Arrays.fill(cells, (int) (start - firstColumn), (int) (end - firstColumn), this);
+			return;
+		}
+		for (QuadtreeBitmap quad : quadrants()) {
+			quad.collectLeavesInRow(cells, row, firstColumn);
+		}
+	}
+
+	// writers take the characters directly, anything else gets a view of them
+	private static void appendLine(Appendable out, char[] line) throws IOException {
+		if (out instanceof Writer) {
+			((Writer) out).write(line);
+		} else {
+			out.append(CharBuffer.wrap(line));
+		}
+	}
+
+	// draws the box of a leaf for toTreeString, given its top left corner on the canvas
+	static void printLeafBoxToCanvas(char[][] canvas, int leftX, int topY, int size, Colour colour) {
+		int bottomY = topY + 2*size;
+		int rightX = leftX + 2*size;
+		// corners
+		canvas[topY][leftX] = CORNER;
+		canvas[topY][rightX] = CORNER;
+		canvas[bottomY][leftX] = CORNER;
+		canvas[bottomY][rightX] = CORNER;
+		// top
+		for (int i = leftX + 1; i < rightX; i++) {
+			if (canvas[topY][i] != CORNER) {
+				canvas[topY][i] = H_WALL;
+			}
+		}
+		// bottom
+		for (int i = leftX + 1; i < rightX; i++) {
+			if (canvas[bottomY][i] != CORNER) {
+				canvas[bottomY][i] = H_WALL;
+			}
+		}
+		// left
+		for (int i = topY + 1; i < bottomY; i++) {
+			if (canvas[i][leftX] != CORNER) {
+				canvas[i][leftX] = V_WALL;
+			}
+		}
+		// right
+		for (int i = topY + 1; i < bottomY; i++) {
+			if (canvas[i][rightX] != CORNER) {
+				canvas[i][rightX] = V_WALL;
+			}
+		}
+		// fill every odd coordinate in interior
+		for (int i = topY + 1; i < bottomY; i++) {
+			for (int j = leftX + 1; j < rightX; j++) {
+				canvas[i][j] = (i % 2 == 1 && j % 2 == 1) ? colour.getTexture() : FILLER;
+			}
+		}
+	}
+
+	// joins the rows of a canvas with line separators
+	static String canvasToString(char[][] canvas) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < canvas.length; i++) {
+			char[] row = canvas[i];
+			for (char ch : row) {
+				sb.append(ch);
+			}
+			if (i + 1 < canvas.length) {
+				sb.append(System.lineSeparator());
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns a string representation of this bitmap. The string representation consists
+	 * of a newline-separated sequence of rows, where each row consists of a sequence of 
+	 * characters which each encode the colour of a pixel.
+	 *
+	 * For a string representation which depicts the quadtree structure of this bitmap,
+	 * see {@link #toTreeString}.
+	 *
+	 * @return a string representation of this bitmap
+	 */
+	@Override
+	public String toString() {
+		QuadtreeOperationEvent event = QuadtreeMetrics.begin("toString");
+		StringBuilder sb = new StringBuilder();
+		try {
+			writeTo(sb);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		QuadtreeMetrics.end(event, size);
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the string representation returned by {@link #toString} to the given 
+	 * destination, one row at a time. Each row is rendered from the leaves crossing it, so 
+	 * only a single row of characters is held in memory however large the bitmap is.
+	 *
+	 * @param out the destination to write the rows of this bitmap to
+	 * @throws IOException if writing to the destination fails
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		writeTo(out, x, y, size, size);
+	}
+
+	/**
+	 * Writes the rows of the string representation returned by {@link #toString} that lie 
+	 * within the given rectangle to the given destination, each cut off at the rectangle's 
+	 * left and right edges. Parts of the rectangle outside the bitmap are ignored, and 
+	 * nothing is written if no pixel of the bitmap is inside it.
+	 *
+	 * @param out the destination to write the rows of this bitmap to
+	 * @param x the distance right of the origin of the rectangle's left edge
+	 * @param y the distance below the origin of the rectangle's top edge
+	 * @param w the width of the rectangle
+	 * @param h the height of the rectangle
+	 * @throws IOException if writing to the destination fails
+	 */
+	public void writeTo(Appendable out, int x, int y, int w, int h) throws IOException {
+		if (w < 0 || h < 0) {
+			throw new IllegalArgumentException("Negative rectangle size.");
+		}
+		int left = Math.max(x, this.x);
+		int top = Math.max(y, this.y);
+		int right = (int) Math.min((long) x + w, (long) this.x + size);
+		int bottom = (int) Math.min((long) y + h, (long) this.y + size);
+		if (left >= right || top >= bottom) {
+			return;
+		}
+		char[] line = new char[right - left];
+		for (int row = top; row < bottom; row++) {
+			if (row > top) {
+				out.append(System.lineSeparator());
+			}
+			printRow(line, row, left);
+			appendLine(out, line);
+		}
+	}
+
+	// fills in the textures of one row of pixels, starting at the given column
+	private void printRow(char[] line, int row, int firstColumn) {
+		long start = Math.max(x, firstColumn);
+		long end = Math.min((long) x + size, (long) firstColumn + line.length);
+		if (row < y || row >= (long) y + size || start >= end) {
+			return;
+		} else if (leaf) {
+			Arrays.fill(line, (int) (start - firstColumn), (int) (end - firstColumn), colour.getTexture());
+			return;
+		}
+		for (QuadtreeBitmap quad : quadrants()) {
+			quad.printRow(line, row, firstColumn);
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package quadtree;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the {@link QuadtreeBitmap} nodes allocated, and of those merged away when a
+ * region collapses into a single leaf, together with a JFR event, {@code quadtree.Operation},
+ * recorded around {@code fromString}, {@code setPixel}, {@code computeOverlay} and
+ * {@code toString} with the nodes each call allocated and merged on its own thread.
+ *
+ * Metrics are switched on by starting the JVM with {@code -Dquadtree.metrics=true}. The
+ * switch is read once, into a constant, so when it is off every hook is a branch on a
+ * constant which the JIT compiler removes entirely.
+ */
+public final class QuadtreeMetrics {
+	// fixed when the class is initialized, so that disabled hooks compile away
+	static final boolean ENABLED = Boolean.getBoolean("quadtree.metrics");
+
+	private static final LongAdder ALLOCATED = new LongAdder();
+	private static final LongAdder MERGED = new LongAdder();
+	// per thread, the nodes allocated and merged so far, to attribute them to operations
+	private static final ThreadLocal<long[]> THREAD_COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+	private QuadtreeMetrics() {
+	}
+
+	/**
+	 * Returns whether metrics are being collected.
+	 *
+	 * @return true if the JVM was started with {@code -Dquadtree.metrics=true}
+	 */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/**
+	 * Returns the number of nodes allocated since startup or the last {@link #reset}, on
+	 * every thread.
+	 *
+	 * @return the number of nodes allocated, or 0 if metrics are off
+	 */
+	public static long nodesAllocated() {
+		return ALLOCATED.sum();
+	}
+
+	/**
+	 * Returns the number of nodes merged away since startup or the last {@link #reset}, on
+	 * every thread. A region collapsing into a leaf counts its four quadrants.
+	 *
+	 * @return the number of nodes merged away, or 0 if metrics are off
+	 */
+	public static long nodesMerged() {
+		return MERGED.sum();
+	}
+
+	/**
+	 * Sets the totals returned by {@link #nodesAllocated} and {@link #nodesMerged} back to
+	 * zero.
+	 */
+	public static void reset() {
+		ALLOCATED.reset();
+		MERGED.reset();
+	}
+
+	static void allocated(int nodes) {
+		if (ENABLED) {
+			ALLOCATED.add(nodes);
+			THREAD_COUNTS.get()[0] += nodes;
+		}
+	}
+
+	static void merged(int nodes) {
+		if (ENABLED) {
+			MERGED.add(nodes);
+			THREAD_COUNTS.get()[1] += nodes;
+		}
+	}
+
+	// starts timing an operation, or returns null when metrics are off
+	static QuadtreeOperationEvent begin(String operation) {
+		if (!ENABLED) {
+			return null;
+		}
+		QuadtreeOperationEvent event = new QuadtreeOperationEvent();
+		event.operation = operation;
+		// the thread's counts at the start, replaced by the differences when it ends
+		long[] counts = THREAD_COUNTS.get();
+		event.nodesAllocated = counts[0];
+		event.nodesMerged = counts[1];
+		event.begin();
+		return event;
+	}
+
+	// finishes an operation started by begin on the same thread, on a bitmap of the given size
+	static void end(QuadtreeOperationEvent event, int size) {
+		if (event == null) {
+			return;
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			long[] counts = THREAD_COUNTS.get();
+			event.size = size;
+			event.nodesAllocated = counts[0] - event.nodesAllocated;
+			event.nodesMerged = counts[1] - event.nodesMerged;
+			event.commit();
+		}
+	}
+}
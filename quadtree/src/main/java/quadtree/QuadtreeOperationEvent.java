@@ -0,0 +1,32 @@
+package quadtree;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded by {@link QuadtreeMetrics} around a {@link QuadtreeBitmap} operation.
+ */
+@Name("quadtree.Operation")
+@Label("Quadtree Operation")
+@Category("Quadtree")
+@Description("A quadtree bitmap operation, with the nodes it allocated and merged away")
+@StackTrace(false)
+final class QuadtreeOperationEvent extends Event {
+	@Label("Operation")
+	String operation;
+
+	@Label("Size")
+	@Description("Height and width of the bitmap operated on or produced")
+	int size;
+
+	@Label("Nodes Allocated")
+	long nodesAllocated;
+
+	@Label("Nodes Merged")
+	@Description("Nodes dropped by regions collapsing into single leaves")
+	long nodesMerged;
+}
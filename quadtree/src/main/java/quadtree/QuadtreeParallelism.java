@@ -0,0 +1,84 @@
+package quadtree;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Configures the parallel variants of the recursive {@link QuadtreeBitmap} operations: the
+ * fork/join pool to run on, and the size of region below which work stays on the current
+ * thread. The four quadrants of a node are independent, so each node above the threshold
+ * forks one task per quadrant. Parallel and sequential variants produce identical bitmaps.
+ */
+public final class QuadtreeParallelism {
+	/** Regions at most this wide are processed sequentially unless configured otherwise. */
+	public static final int DEFAULT_THRESHOLD = 256;
+
+	private final ForkJoinPool pool;
+	private final int threshold;
+
+	/**
+	 * Creates a configuration running on the given pool, which processes regions no wider
+	 * than the given threshold sequentially.
+	 *
+	 * @param pool the pool to run tasks on
+	 * @param threshold the largest region size which is not split into tasks
+	 */
+	public QuadtreeParallelism(ForkJoinPool pool, int threshold) {
+		if (pool == null) {
+			throw new IllegalArgumentException("No pool given.");
+		} else if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive.");
+		}
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Creates a configuration running on the given pool with the default threshold.
+	 *
+	 * @param pool the pool to run tasks on
+	 */
+	public QuadtreeParallelism(ForkJoinPool pool) {
+		this(pool, DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Returns a configuration running on the common pool with the default threshold.
+	 *
+	 * @return a configuration using the common pool
+	 */
+	public static QuadtreeParallelism common() {
+		return new QuadtreeParallelism(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns the pool tasks are run on.
+	 *
+	 * @return the pool tasks are run on
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Returns the largest region size which is processed sequentially.
+	 *
+	 * @return the sequential threshold
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	// whether a region of the given size should be processed on the current thread
+	boolean sequential(int size) {
+		return size <= threshold;
+	}
+
+	// runs the task in the pool, or directly when already inside it
+	<T> T invoke(ForkJoinTask<T> task) {
+		if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+			return task.invoke();
+		}
+		return pool.invoke(task);
+	}
+}
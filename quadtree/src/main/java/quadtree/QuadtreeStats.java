@@ -0,0 +1,98 @@
+package quadtree;
+
+import java.util.Arrays;
+
+/**
+ * The shape of a {@link QuadtreeBitmap} at the time {@link QuadtreeBitmap#stats} was
+ * called: how many nodes and leaves it has at each depth, the root being at depth 0, and an
+ * estimate of the memory its nodes retain.
+ */
+public final class QuadtreeStats {
+	// shallow size of one node on a 64-bit JVM with compressed references: a 12 byte
+	// header, three ints, two longs, a boolean and five references, rounded up to 8 bytes
+	static final long NODE_BYTES = 64;
+
+	private final long[] nodesPerDepth;
+	private final long[] leavesPerDepth;
+	private final long nodeCount;
+	private final long leafCount;
+	private final int depth;
+
+	QuadtreeStats(long[] nodesPerDepth, long[] leavesPerDepth) {
+		this.nodesPerDepth = nodesPerDepth;
+		this.leavesPerDepth = leavesPerDepth;
+		this.nodeCount = Arrays.stream(nodesPerDepth).sum();
+		this.leafCount = Arrays.stream(leavesPerDepth).sum();
+		int deepest = 0;
+		for (int i = 0; i < nodesPerDepth.length; i++) {
+			if (nodesPerDepth[i] > 0) {
+				deepest = i;
+			}
+		}
+		this.depth = deepest;
+	}
+
+	/**
+	 * Returns the number of nodes in the tree, leaves included.
+	 *
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the number of leaves in the tree.
+	 *
+	 * @return the number of leaves
+	 */
+	public long getLeafCount() {
+		return leafCount;
+	}
+
+	/**
+	 * Returns the depth of the deepest leaf, 0 if the root is a leaf.
+	 *
+	 * @return the depth of the tree
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the number of nodes at each depth, from the root down to single pixels.
+	 *
+	 * @return a new array holding the number of nodes at each depth
+	 */
+	public long[] getNodesPerDepth() {
+		return nodesPerDepth.clone();
+	}
+
+	/**
+	 * Returns the number of leaves at each depth, from the root down to single pixels.
+	 * Leaves at depth d are regions of size {@code getSize() >> d}.
+	 *
+	 * @return a new array holding the number of leaves at each depth
+	 */
+	public long[] getLeavesPerDepth() {
+		return leavesPerDepth.clone();
+	}
+
+	/**
+	 * Returns an estimate of the bytes held by the nodes of the tree, assuming a 64-bit JVM
+	 * with compressed references.
+	 *
+	 * @return the estimated retained size in bytes
+	 */
+	public long getEstimatedRetainedBytes() {
+		return nodeCount * NODE_BYTES;
+	}
+
+	@Override
+	public String toString() {
+		return "nodes=" + nodeCount + ", leaves=" + leafCount + ", depth=" + depth
+				+ ", estimatedBytes=" + getEstimatedRetainedBytes()
+				+ ", nodesPerDepth=" + Arrays.toString(nodesPerDepth)
+				+ ", leavesPerDepth=" + Arrays.toString(leavesPerDepth);
+	}
+}
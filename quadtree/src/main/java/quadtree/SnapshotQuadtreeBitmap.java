@@ -0,0 +1,132 @@
+package quadtree;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * A mutable bitmap which readers can query without locks while writers keep updating it.
+ * The current state is an {@link ImmutableQuadtreeBitmap}, published through an atomic
+ * reference. A write path-copies only the nodes it changes into a new version and swaps it
+ * in; a reader calls {@link #snapshot} and traverses that version for as long as it likes,
+ * unaffected by later writes.
+ *
+ * Writes are atomic with respect to each other. Concurrent writers retry on conflict, so
+ * the cost of contention falls on writers and never on readers.
+ */
+public final class SnapshotQuadtreeBitmap {
+	private final AtomicReference<ImmutableQuadtreeBitmap> current;
+
+	/**
+	 * Constructs a new bitmap with height and width equal to the specified size, and every
+	 * pixel initialized to the given colour. The specified size must be a power of 2, and
+	 * must be greater than zero.
+	 *
+	 * @param size the height and width of this bitmap
+	 * @param colour the colour with which to initialize every pixel in this bitmap
+	 */
+	public SnapshotQuadtreeBitmap(int size, Colour colour) {
+		this(ImmutableQuadtreeBitmap.of(size, colour));
+	}
+
+	/**
+	 * Constructs a new bitmap whose first version is the given bitmap.
+	 *
+	 * @param initial the initial pixels of this bitmap
+	 */
+	public SnapshotQuadtreeBitmap(ImmutableQuadtreeBitmap initial) {
+		this.current = new AtomicReference<>(initial);
+	}
+
+	/**
+	 * Returns the current version of this bitmap. The version returned never changes, and
+	 * may be read from any number of threads without synchronization.
+	 *
+	 * @return the current pixels of this bitmap
+	 */
+	public ImmutableQuadtreeBitmap snapshot() {
+		return current.get();
+	}
+
+	/**
+	 * Returns the height and width of this bitmap.
+	 *
+	 * @return the size of this bitmap
+	 */
+	public int getSize() {
+		return current.get().getSize();
+	}
+
+	/**
+	 * Counts the number of pixels of the given colour in the current version of this bitmap.
+	 *
+	 * @param colour the colour to count the number of pixels of
+	 * @return the number of pixels of the given colour
+	 */
+	public long countPixels(Colour colour) {
+		return current.get().countPixels(colour);
+	}
+
+	/**
+	 * Sets the colour of a single pixel at the specified location to the given colour.
+	 * Locations outside the bitmap are ignored.
+	 *
+	 * @param x the distance right of the origin of the given location
+	 * @param y the distance below the origin of the given location
+	 * @param colour the colour to set the pixel at the given location to
+	 */
+	public void setPixel(int x, int y, Colour colour) {
+		update(version -> version.setPixel(x, y, colour));
+	}
+
+	/**
+	 * Inverts the colours in this bitmap, i.e. turns every black pixel white and every
+	 * white pixel black.
+	 */
+	public void invertColours() {
+		update(ImmutableQuadtreeBitmap::invertColours);
+	}
+
+	/**
+	 * Replaces this bitmap by the overlay of itself and the given bitmap, as described by
+	 * {@link QuadtreeBitmap#computeOverlay}.
+	 *
+	 * @param other a bitmap of the same size to overlay onto this one
+	 */
+	public void overlay(ImmutableQuadtreeBitmap other) {
+		if (other.getSize() != getSize()) {
+			throw new IllegalArgumentException("Bitmaps differ in size.");
+		}
+		update(version -> ImmutableQuadtreeBitmap.computeOverlay(version, other));
+	}
+
+	/**
+	 * Atomically replaces the current version by the result of applying the given function
+	 * to it. The function may be applied more than once if other writers get in first, so
+	 * it should be free of side effects.
+	 *
+	 * @param write computes the next version from the current one
+	 * @return the version published
+	 */
+	public ImmutableQuadtreeBitmap update(UnaryOperator<ImmutableQuadtreeBitmap> write) {
+		while (true) {
+			ImmutableQuadtreeBitmap version = current.get();
+			ImmutableQuadtreeBitmap next = write.apply(version);
+			if (next.getSize() != version.getSize()) {
+				throw new IllegalArgumentException("Update changed the size of the bitmap.");
+			}
+			if (next == version || current.compareAndSet(version, next)) {
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * Returns a string representation of the current version of this bitmap.
+	 *
+	 * @return a string representation of this bitmap
+	 */
+	@Override
+	public String toString() {
+		return current.get().toString();
+	}
+}